@@ -0,0 +1,321 @@
+package ai.level3;
+
+import ai.Logger;
+import ai.Logger.Level;
+import ai.level3.analysis.GameAnalyzer;
+import ai.level3.analysis.ProbabilityEngine;
+import ai.level3.memory.CardMemory;
+import ai.level3.memory.OpponentModel;
+import ai.level3.search.EndgameSolver;
+import ai.level3.search.IsmctsSearch;
+import ai.level3.search.MoveSearch;
+import ai.level3.search.ParallelMode;
+import ai.level3.search.PimcSearch;
+import ai.level3.search.RootParallelSearch;
+import ai.level3.search.TreeParallelSearch;
+import game.Card;
+import game.CardSet;
+import game.Game;
+import game.GameState;
+import game.Move;
+import game.Player;
+import game.Rules;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * AIPlayer3lvl — третий уровень ИИ.
+ * Выбирает ход поиском ISMCTS: перебирает случайные раздачи невидимых карт
+ * и строит по ним общее дерево ходов с выбором по UCT.
+ * Поиск может идти в несколько потоков: независимые деревья по корню
+ * ({@link ParallelMode#ROOT}) или одно общее дерево ({@link ParallelMode#TREE}).
+ * Когда колода пуста, ход сначала ищет точный решатель эндшпиля, а поиск
+ * запускается, только если решатель не уложился в половину времени.
+ * Из ходов корня, которые поиск не различил, выбирается ход по
+ * вероятностям карт соперника ({@link ProbabilityEngine}).
+ * Игрок сам считает свою скорость в симуляциях в секунду.
+ */
+public class AIPlayer3lvl extends Player {
+    /** Время на ход по умолчанию, мс. */
+    public static final long DEFAULT_TIME_BUDGET_MS = 50;
+
+    private final MoveSearch search;
+    private final EndgameSolver endgameSolver = new EndgameSolver();
+    private final CardMemory memory = new CardMemory(this);
+    private final GameAnalyzer analyzer = new GameAnalyzer(this);
+    private final ProbabilityEngine probabilities = new ProbabilityEngine();
+    private final long[] rootVisits = new long[MoveSearch.MOVE_CODES];
+    private final OpponentModel.Tracker opponentTracker = OpponentModel.getDefault().tracker(this);
+    private Game observedGame;
+    private final ParallelMode parallelMode;
+    private final int threads;
+    private final SplittableRandom random;
+    private final int maxIterations;
+    private final long timeBudgetNanos;
+
+    // Статистика скорости поиска за всё время жизни игрока
+    private long totalIterations;
+    private long totalSearchNanos;
+
+    public AIPlayer3lvl(String name) {
+        this(name, Integer.MAX_VALUE, DEFAULT_TIME_BUDGET_MS);
+    }
+
+    /**
+     * @param name имя игрока
+     * @param maxIterations предел итераций поиска на ход
+     * @param timeBudgetMillis предел времени на ход, мс
+     */
+    public AIPlayer3lvl(String name, int maxIterations, long timeBudgetMillis) {
+        this(name, maxIterations, timeBudgetMillis, new SplittableRandom());
+    }
+
+    public AIPlayer3lvl(String name, int maxIterations, long timeBudgetMillis, SplittableRandom random) {
+        this(name, maxIterations, timeBudgetMillis, ParallelMode.NONE, 1, random);
+    }
+
+    /**
+     * @param name имя игрока
+     * @param maxIterations предел итераций поиска на ход (на все потоки)
+     * @param timeBudgetMillis предел времени на ход, мс
+     * @param parallelMode способ распараллеливания поиска
+     * @param threads число потоков поиска
+     * @param random генератор случайных чисел
+     */
+    public AIPlayer3lvl(String name, int maxIterations, long timeBudgetMillis,
+                        ParallelMode parallelMode, int threads, SplittableRandom random) {
+        this(name, createSearch(threads > 1 ? parallelMode : ParallelMode.NONE, threads),
+                threads > 1 ? parallelMode : ParallelMode.NONE,
+                parallelMode == ParallelMode.NONE ? 1 : Math.max(1, threads),
+                maxIterations, timeBudgetMillis, random);
+    }
+
+    /**
+     * Для игроков с другим алгоритмом поиска.
+     * @param name имя игрока
+     * @param search алгоритм поиска хода
+     * @param parallelMode способ распараллеливания (для отчёта)
+     * @param threads число потоков поиска (для отчёта)
+     * @param maxIterations предел итераций поиска на ход
+     * @param timeBudgetMillis предел времени на ход, мс
+     * @param random генератор случайных чисел
+     */
+    protected AIPlayer3lvl(String name, MoveSearch search, ParallelMode parallelMode, int threads,
+                           int maxIterations, long timeBudgetMillis, SplittableRandom random) {
+        super(name, false); // false = не человек
+        this.search = search;
+        this.parallelMode = parallelMode;
+        this.threads = threads;
+        this.maxIterations = maxIterations;
+        this.timeBudgetNanos = timeBudgetMillis * 1_000_000L;
+        this.random = random;
+    }
+
+    private static MoveSearch createSearch(ParallelMode parallelMode, int threads) {
+        switch (parallelMode) {
+            case ROOT:
+                return new RootParallelSearch(threads);
+            case TREE:
+                return new TreeParallelSearch(threads);
+            case DEALS:
+                return new PimcSearch(threads);
+            default:
+                return new IsmctsSearch();
+        }
+    }
+
+    public ParallelMode getParallelMode() {
+        return parallelMode;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Всего симуляций за все ходы этого игрока.
+     */
+    public long getTotalIterations() {
+        return totalIterations;
+    }
+
+    /**
+     * Всего времени поиска, нс.
+     */
+    public long getTotalSearchNanos() {
+        return totalSearchNanos;
+    }
+
+    /**
+     * Средняя скорость поиска в симуляциях в секунду.
+     */
+    public double getPlayoutsPerSecond() {
+        return totalSearchNanos == 0 ? 0 : totalIterations * 1e9 / totalSearchNanos;
+    }
+
+    /**
+     * Выбирает карту для атаки поиском.
+     * @param game текущее состояние игры
+     * @param cardsOnTable карты на столе
+     * @return карта для атаки или null, если выгоднее не ходить
+     */
+    @Override
+    public Card playCard(Game game, List<Card> cardsOnTable) {
+        int move = chooseMove(game);
+        return Move.type(move) == Move.ATTACK ? Card.byIndex(Move.card(move)) : null;
+    }
+
+    /**
+     * Выбирает карту для защиты поиском.
+     * @param game текущее состояние игры
+     * @param attackCard атакующая карта
+     * @return карта для защиты или null, если выгоднее взять
+     */
+    @Override
+    public Card defendCard(Game game, Card attackCard) {
+        int move = chooseMove(game);
+        return Move.type(move) == Move.DEFEND ? Card.byIndex(Move.card(move)) : null;
+    }
+
+    /**
+     * Карты, которые точно есть у соперника: он взял их и ещё не сыграл.
+     */
+    protected long getKnownOpponentCards(Game game) {
+        return memory.getOpponentKnown();
+    }
+
+    /**
+     * Карты, которых у соперника нет: он не побил ими атаку. Если модель
+     * соперника знает, что он берёт и без нужды, вывод не используется.
+     */
+    protected long getExcludedOpponentCards(Game game) {
+        OpponentModel.Profile profile = opponentTracker.getProfile();
+        return profile == null || profile.takesOnlyWhenForced() ? memory.getOpponentExcluded() : 0;
+    }
+
+    protected CardMemory getMemory() {
+        return memory;
+    }
+
+    /**
+     * Профиль текущего соперника из общей модели соперников.
+     */
+    protected OpponentModel.Profile getOpponentProfile() {
+        return opponentTracker.getProfile();
+    }
+
+    /**
+     * Подключает память, признаки позиции и модель соперника к новой игре.
+     * Первый ход игрока наступает раньше, чем кто-либо возьмёт или
+     * отобьётся, так что они ничего не пропускают.
+     */
+    private void observe(Game game) {
+        if (game == observedGame) {
+            return;
+        }
+        if (observedGame != null) {
+            memory.detach(observedGame);
+            analyzer.detach(observedGame);
+            opponentTracker.detach(observedGame);
+        }
+        memory.attach(game);
+        analyzer.attach(game);
+        opponentTracker.attach(game);
+        observedGame = game;
+    }
+
+    private int chooseMove(Game game) {
+        observe(game);
+        GameState state = game.getState();
+        int seat = game.getPlayers().indexOf(this);
+        long start = System.nanoTime();
+
+        if (EndgameSolver.isEndgame(state)) {
+            int solved = endgameSolver.solve(state, seat, start + timeBudgetNanos / 2);
+            if (solved != EndgameSolver.NO_MOVE) {
+                if (Logger.isEnabled(Level.DEBUG)) {
+                    Logger.debug(getClass().getSimpleName(), "Эндшпиль решён: " + Move.toString(solved)
+                            + (endgameSolver.getLastResult() == EndgameSolver.WIN ? ", победа" : ", поражение")
+                            + " после " + endgameSolver.getLastNodes() + " узлов");
+                }
+                return solved;
+            }
+        }
+
+        int move = search.search(state, seat, getKnownOpponentCards(game), getExcludedOpponentCards(game),
+                maxIterations, start + timeBudgetNanos, random);
+
+        int iterations = search.getLastIterations();
+        if (iterations > 0) {
+            totalIterations += iterations;
+            totalSearchNanos += System.nanoTime() - start;
+            move = breakTie(state, seat, move);
+        }
+        if (Logger.isEnabled(Level.DEBUG)) {
+            Logger.debug(getClass().getSimpleName(), "Ход " + Move.toString(move) + " после "
+                    + iterations + " итераций, " + Math.round(getPlayoutsPerSecond())
+                    + " симуляций/с (" + parallelMode + ", потоков: " + threads + ")");
+        }
+        return move;
+    }
+
+    /**
+     * Ходы того же вида, что и найденный, у которых посещений меньше не
+     * больше чем на корень из его посещений, поиск не различает. Среди них
+     * атака выбирается картой, которую сопернику вероятнее всего нечем
+     * побить, а защита — картой, ранг которой у соперника вероятнее всего
+     * не найдётся для подкидывания. Размеры руки соперника и колоды берутся
+     * из признаков позиции {@link GameAnalyzer}.
+     */
+    private int breakTie(GameState state, int seat, int move) {
+        int type = Move.type(move);
+        if (type != Move.ATTACK && type != Move.DEFEND) {
+            return move;
+        }
+        Arrays.fill(rootVisits, 0);
+        search.addRootVisits(rootVisits);
+        long best = rootVisits[move];
+        double margin = Math.sqrt(best);
+
+        long unseen = memory.getUnseen();
+        long known = memory.getOpponentKnown();
+        int handSize = analyzer.get(GameAnalyzer.OPPONENT_HAND);
+        int chosen = move;
+        double chosenRisk = risk(state, move, unseen, known, handSize);
+        for (int candidate = 0; candidate < rootVisits.length; candidate++) {
+            if (candidate == move || rootVisits[candidate] == 0 || Move.type(candidate) != type
+                    || best - rootVisits[candidate] > margin) {
+                continue;
+            }
+            double risk = risk(state, candidate, unseen, known, handSize);
+            if (risk < chosenRisk) {
+                chosen = candidate;
+                chosenRisk = risk;
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * Для атаки — вероятность, что соперник побьёт карту; для защиты —
+     * вероятность, что у него есть карта её ранга, которого ещё нет на столе.
+     */
+    private double risk(GameState state, int move, long unseen, long known, int handSize) {
+        int card = Move.card(move);
+        int rank = card % CardSet.RANK_COUNT;
+        int trump = state.getTrump();
+        // Цена карты — ранг; пока колода не кончилась, козырь дороже любой некозырной
+        boolean saveTrumps = analyzer.get(GameAnalyzer.DECK) > 0;
+        double cost = (rank + (saveTrumps && card / CardSet.RANK_COUNT == trump ? CardSet.RANK_COUNT : 0))
+                / (2.0 * CardSet.RANK_COUNT);
+        if (Move.type(move) == Move.ATTACK) {
+            return cost + probabilities.holdsBeater(unseen, known, handSize, card, trump);
+        }
+        if ((Rules.rankMaskOf(state.getTable()) & Rules.rankMask(rank)) != 0) {
+            return cost;
+        }
+        return cost + probabilities.holdsRank(unseen, known, handSize, rank);
+    }
+}
@@ -0,0 +1,40 @@
+package ai.level3;
+
+import ai.level3.analysis.LinearEvaluator;
+import ai.level3.search.IsmctsSearch;
+import ai.level3.search.ParallelMode;
+import ai.level3.search.StrategyRolloutPolicy;
+
+import java.util.SplittableRandom;
+
+/**
+ * AIPlayerEval — {@link AIPlayer3lvl}, который не доигрывает симуляции до
+ * конца: после {@link #CUTOFF_PLIES} ходов исход заменяет оценка
+ * {@link LinearEvaluator}. Веса читаются из файла весов, если он есть
+ * (см. {@link LinearEvaluator#createDefault()}), так что на этом игроке
+ * проверяются веса, подобранные настройкой. Поиск однопоточный: оценка
+ * не делится между потоками.
+ */
+public class AIPlayerEval extends AIPlayer3lvl {
+    /** Ходов симуляции до оценки. */
+    public static final int CUTOFF_PLIES = 16;
+
+    public AIPlayerEval(String name) {
+        this(name, LinearEvaluator.createDefault(), Integer.MAX_VALUE, DEFAULT_TIME_BUDGET_MS,
+                new SplittableRandom());
+    }
+
+    /**
+     * @param name имя игрока
+     * @param evaluator оценка позиции в конце симуляции
+     * @param maxIterations предел итераций поиска на ход
+     * @param timeBudgetMillis предел времени на ход, мс
+     * @param random генератор случайных чисел
+     */
+    public AIPlayerEval(String name, LinearEvaluator evaluator, int maxIterations, long timeBudgetMillis,
+                        SplittableRandom random) {
+        super(name, new IsmctsSearch(new StrategyRolloutPolicy(), IsmctsSearch.DEFAULT_EXPLORATION,
+                        evaluator, CUTOFF_PLIES),
+                ParallelMode.NONE, 1, maxIterations, timeBudgetMillis, random);
+    }
+}
@@ -0,0 +1,34 @@
+package ai.level3;
+
+import ai.level3.search.ParallelMode;
+import ai.level3.search.PimcSearch;
+
+import java.util.SplittableRandom;
+
+/**
+ * AIPlayerPimc — игрок Perfect Information Monte Carlo.
+ * В отличие от {@link AIPlayer3lvl} не строит дерево: каждая случайная
+ * раздача скрытых карт разыгрывается как игра с открытыми картами, и ходы
+ * корня голосуют по этим раздачам. Раздачи считаются параллельно в пуле
+ * на threads потоков ({@link ParallelMode#DEALS}), их число зависит от
+ * времени на ход.
+ */
+public class AIPlayerPimc extends AIPlayer3lvl {
+
+    public AIPlayerPimc(String name) {
+        this(name, Integer.MAX_VALUE, DEFAULT_TIME_BUDGET_MS,
+                Runtime.getRuntime().availableProcessors(), new SplittableRandom());
+    }
+
+    /**
+     * @param name имя игрока
+     * @param maxSamples предел числа раздач на ход
+     * @param timeBudgetMillis предел времени на ход, мс
+     * @param threads число параллельно обрабатываемых раздач
+     * @param random генератор случайных чисел
+     */
+    public AIPlayerPimc(String name, int maxSamples, long timeBudgetMillis, int threads, SplittableRandom random) {
+        super(name, new PimcSearch(threads), threads > 1 ? ParallelMode.DEALS : ParallelMode.NONE,
+                Math.max(1, threads), maxSamples, timeBudgetMillis, random);
+    }
+}
@@ -0,0 +1,241 @@
+package ai.level3.analysis;
+
+import ai.level3.memory.OpponentModel;
+import game.Card;
+import game.CardSet;
+import game.Game;
+import game.Player;
+
+import java.util.Arrays;
+
+/**
+ * Вектор признаков текущей позиции с точки зрения одного игрока: размеры
+ * рук и колоды, стадия партии, козыри и их сила у себя и среди известных
+ * карт соперника, ещё не виденные козыри, ранги, которых на руке несколько
+ * (ими можно подкидывать), мелкие карты, сброс. Вектор не пересчитывается
+ * по рукам на каждом ходу: каждое событие игры меняет только те признаки,
+ * которых касается его карта, так что чтение признака — обращение к массиву.
+ * Карты, добранные из колоды, видны как разница маски своей руки.
+ */
+public class GameAnalyzer implements Game.GameStateListener {
+    public static final int MY_HAND = 0;
+    public static final int OPPONENT_HAND = 1;
+    public static final int DECK = 2;
+    /** Стадия партии 0..3, см. {@link OpponentModel#stage(int)}. */
+    public static final int STAGE = 3;
+    /** 1, если игрок атакует. */
+    public static final int ATTACKING = 4;
+    public static final int MY_TRUMPS = 5;
+    /** Сумма рангов козырей на руке, считая шестёрку за 1. */
+    public static final int MY_TRUMP_STRENGTH = 6;
+    public static final int OPPONENT_KNOWN = 7;
+    public static final int OPPONENT_KNOWN_TRUMPS = 8;
+    public static final int OPPONENT_KNOWN_TRUMP_STRENGTH = 9;
+    /** Козыри, которых игрок ещё не видел: они в колоде или у соперника. */
+    public static final int UNSEEN_TRUMPS = 10;
+    /** Ранги, которых на руке две карты и больше. */
+    public static final int MY_RANK_GROUPS = 11;
+    /** Карты этих рангов. */
+    public static final int MY_GROUPED_CARDS = 12;
+    /** Некозырные шестёрки, семёрки и восьмёрки на руке. */
+    public static final int MY_LOW_CARDS = 13;
+    public static final int DISCARDED = 14;
+    public static final int FEATURE_COUNT = 15;
+
+    private static final int LOW_RANKS = 3;
+
+    private final Player owner;
+    private final int[] features = new int[FEATURE_COUNT];
+    private final int[] rankCounts = new int[CardSet.RANK_COUNT];
+    private Game game;
+    private Player opponent;
+    private int trump;
+
+    private long hand;
+    private long opponentKnown;
+    private long seen;
+
+    public GameAnalyzer(Player owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Начинает отслеживать игру с её текущего положения, как
+     * {@link ai.level3.memory.CardMemory#attach}.
+     */
+    public void attach(Game game) {
+        this.game = game;
+        opponent = game.getNextPlayer(owner);
+        trump = game.getDeck().getTrumpSuit().ordinal();
+        reset(game.getDiscardMask() | game.getTableMask());
+        features[DISCARDED] = Long.bitCount(game.getDiscardMask());
+        game.addGameStateListener(this);
+    }
+
+    public void detach(Game game) {
+        game.removeGameStateListener(this);
+    }
+
+    /**
+     * Значение признака; индексы — константы этого класса.
+     */
+    public int get(int feature) {
+        return features[feature];
+    }
+
+    /**
+     * Весь вектор. Массив живой и меняется с каждым событием игры;
+     * изменять его нельзя.
+     */
+    public int[] getFeatures() {
+        return features;
+    }
+
+    @Override
+    public void onGameStarted() {
+        reset(0);
+    }
+
+    @Override
+    public void onGameStateChanged(Game game) {
+        // Добор из колоды
+        for (long drawn = owner.getHandMask() & ~hand; drawn != 0; drawn &= drawn - 1) {
+            int card = Long.numberOfTrailingZeros(drawn);
+            see(card);
+            add(card);
+        }
+        updateCounts();
+    }
+
+    @Override
+    public void onCardPlayed(Player player, Card card) {
+        int index = card.getIndex();
+        see(index);
+        if (player == owner) {
+            remove(index);
+        } else {
+            features[OPPONENT_HAND]--;
+            if ((opponentKnown & 1L << index) != 0) {
+                forget(index);
+            }
+        }
+    }
+
+    @Override
+    public void onCardsTaken(Player player, long cards) {
+        for (long m = cards; m != 0; m &= m - 1) {
+            int card = Long.numberOfTrailingZeros(m);
+            if (player == owner) {
+                add(card);
+            } else {
+                features[OPPONENT_HAND]++;
+                learn(card);
+            }
+        }
+    }
+
+    @Override
+    public void onCardsDiscarded(long cards) {
+        features[DISCARDED] += Long.bitCount(cards);
+    }
+
+    @Override
+    public void onGameEnded(Player winner) {
+    }
+
+    private void reset(long visible) {
+        Arrays.fill(features, 0);
+        Arrays.fill(rankCounts, 0);
+        hand = 0;
+        opponentKnown = 0;
+        seen = 0;
+        features[UNSEEN_TRUMPS] = CardSet.RANK_COUNT;
+        for (long m = visible | owner.getHandMask(); m != 0; m &= m - 1) {
+            see(Long.numberOfTrailingZeros(m));
+        }
+        for (long m = owner.getHandMask(); m != 0; m &= m - 1) {
+            add(Long.numberOfTrailingZeros(m));
+        }
+        if (game != null) {
+            updateCounts();
+        }
+    }
+
+    private void updateCounts() {
+        features[OPPONENT_HAND] = opponent.getHandSize();
+        int deck = game.getDeck().getSize();
+        features[DECK] = deck;
+        features[STAGE] = OpponentModel.stage(deck);
+        features[ATTACKING] = game.getAttacker() == owner ? 1 : 0;
+    }
+
+    private void see(int card) {
+        long bit = 1L << card;
+        if ((seen & bit) == 0) {
+            seen |= bit;
+            if (isTrump(card)) {
+                features[UNSEEN_TRUMPS]--;
+            }
+        }
+    }
+
+    private void add(int card) {
+        hand |= 1L << card;
+        features[MY_HAND]++;
+        int rank = card % CardSet.RANK_COUNT;
+        if (isTrump(card)) {
+            features[MY_TRUMPS]++;
+            features[MY_TRUMP_STRENGTH] += rank + 1;
+        } else if (rank < LOW_RANKS) {
+            features[MY_LOW_CARDS]++;
+        }
+        int count = ++rankCounts[rank];
+        if (count == 2) {
+            features[MY_RANK_GROUPS]++;
+            features[MY_GROUPED_CARDS] += 2;
+        } else if (count > 2) {
+            features[MY_GROUPED_CARDS]++;
+        }
+    }
+
+    private void remove(int card) {
+        hand &= ~(1L << card);
+        features[MY_HAND]--;
+        int rank = card % CardSet.RANK_COUNT;
+        if (isTrump(card)) {
+            features[MY_TRUMPS]--;
+            features[MY_TRUMP_STRENGTH] -= rank + 1;
+        } else if (rank < LOW_RANKS) {
+            features[MY_LOW_CARDS]--;
+        }
+        int count = rankCounts[rank]--;
+        if (count == 2) {
+            features[MY_RANK_GROUPS]--;
+            features[MY_GROUPED_CARDS] -= 2;
+        } else if (count > 2) {
+            features[MY_GROUPED_CARDS]--;
+        }
+    }
+
+    private void learn(int card) {
+        opponentKnown |= 1L << card;
+        features[OPPONENT_KNOWN]++;
+        if (isTrump(card)) {
+            features[OPPONENT_KNOWN_TRUMPS]++;
+            features[OPPONENT_KNOWN_TRUMP_STRENGTH] += card % CardSet.RANK_COUNT + 1;
+        }
+    }
+
+    private void forget(int card) {
+        opponentKnown &= ~(1L << card);
+        features[OPPONENT_KNOWN]--;
+        if (isTrump(card)) {
+            features[OPPONENT_KNOWN_TRUMPS]--;
+            features[OPPONENT_KNOWN_TRUMP_STRENGTH] -= card % CardSet.RANK_COUNT + 1;
+        }
+    }
+
+    private boolean isTrump(int card) {
+        return card / CardSet.RANK_COUNT == trump;
+    }
+}
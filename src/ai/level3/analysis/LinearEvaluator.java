@@ -0,0 +1,215 @@
+package ai.level3.analysis;
+
+import ai.Logger;
+import ai.level3.utils.CardPatterns;
+import game.CardSet;
+import game.SearchGame;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Линейная оценка позиции: взвешенная сумма признаков с точки зрения
+ * одного игрока, переведённая в вероятность победы логистической
+ * функцией. Признаки — разности между игроком и соперником (козыри, их
+ * сила, старшие и мелкие карты, карты парных рангов, размер руки), размер
+ * колоды и темп (кто атакует). Признаки считаются по маскам рук в массив
+ * экземпляра, так что оценка ничего не выделяет; по той же причине
+ * экземпляр нельзя делить между потоками.
+ *
+ * Веса читаются из текстового файла: строки {@code имя значение},
+ * пустые строки и комментарии с {@code #} пропускаются, признаки, которых
+ * в файле нет, сохраняют вес по умолчанию.
+ */
+public class LinearEvaluator {
+    /** Файл весов по умолчанию; путь можно задать свойством {@link #PATH_PROPERTY}. */
+    public static final String DEFAULT_PATH = "durak.weights";
+    public static final String PATH_PROPERTY = "durak.weights";
+
+    public static final int BIAS = 0;
+    public static final int TRUMPS = 1;
+    public static final int TRUMP_STRENGTH = 2;
+    /** Некозырные валеты, дамы, короли и тузы. */
+    public static final int HIGH_CARDS = 3;
+    /** Некозырные шестёрки, семёрки и восьмёрки. */
+    public static final int LOW_CARDS = 4;
+    /** Карты рангов, которых на руке две и больше. */
+    public static final int GROUPED_CARDS = 5;
+    /** Карт у соперника минус карт у игрока. */
+    public static final int HAND_SIZE = 6;
+    public static final int DECK = 7;
+    /** 1, если атакует игрок, иначе -1. */
+    public static final int TEMPO = 8;
+    public static final int FEATURE_COUNT = 9;
+
+    public static final List<String> FEATURE_NAMES = List.of(
+            "bias", "trumps", "trump_strength", "high_cards", "low_cards",
+            "grouped_cards", "hand_size", "deck", "tempo");
+
+    private static final double[] DEFAULT_WEIGHTS = {
+            0.0, 0.24, 0.06, 0.14, 0.01, 0.03, 0.52, 0.0, -0.07};
+
+    private static final int LOW_RANKS = 3;
+    private static final int HIGH_RANK = 5;
+    private static final long SUIT_BITS = (1L << CardSet.RANK_COUNT) - 1;
+    private static final long LOW_MASK = spread((1L << LOW_RANKS) - 1);
+    private static final long HIGH_MASK = spread(SUIT_BITS & ~((1L << HIGH_RANK) - 1));
+
+    private final double[] weights;
+    private final int[] features = new int[FEATURE_COUNT];
+
+    public LinearEvaluator() {
+        this(DEFAULT_WEIGHTS);
+    }
+
+    public LinearEvaluator(double[] weights) {
+        if (weights.length != FEATURE_COUNT) {
+            throw new IllegalArgumentException("Expected " + FEATURE_COUNT + " weights, got " + weights.length);
+        }
+        this.weights = weights.clone();
+    }
+
+    /**
+     * Оценка с весами из файла по умолчанию, если он есть, иначе со
+     * встроенными. Файл читается один раз за время работы программы;
+     * каждый вызов возвращает новый экземпляр с этими весами, потому что
+     * массив признаков у экземпляра свой.
+     */
+    public static LinearEvaluator createDefault() {
+        return new LinearEvaluator(DefaultHolder.WEIGHTS);
+    }
+
+    public static double[] defaultWeights() {
+        return DEFAULT_WEIGHTS.clone();
+    }
+
+    /**
+     * Читает веса из текстового файла.
+     * @throws IllegalArgumentException если в файле неизвестный признак или не число
+     */
+    public static double[] load(Path path) throws IOException {
+        double[] weights = defaultWeights();
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            String text = (comment >= 0 ? line.substring(0, comment) : line).trim();
+            if (text.isEmpty()) {
+                continue;
+            }
+            String[] parts = text.split("\\s+");
+            int feature = FEATURE_NAMES.indexOf(parts[0]);
+            if (parts.length != 2 || feature < 0) {
+                throw new IllegalArgumentException(path + ":" + lineNumber + ": expected '<feature> <weight>'");
+            }
+            weights[feature] = Double.parseDouble(parts[1]);
+        }
+        return weights;
+    }
+
+    public static void save(Path path, double[] weights) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < FEATURE_COUNT; i++) {
+                out.write(FEATURE_NAMES.get(i) + " " + weights[i]);
+                out.newLine();
+            }
+        }
+    }
+
+    public double[] getWeights() {
+        return weights.clone();
+    }
+
+    /**
+     * Заполняет признаки позиции с точки зрения seat.
+     */
+    public static void extract(SearchGame game, int seat, int[] features) {
+        long mine = game.getHand(seat);
+        long theirs = game.getHand(1 - seat);
+        int trump = game.getTrump();
+        long trumpMask = SUIT_BITS << trump * CardSet.RANK_COUNT;
+
+        features[BIAS] = 1;
+        features[TRUMPS] = Long.bitCount(mine & trumpMask) - Long.bitCount(theirs & trumpMask);
+        features[TRUMP_STRENGTH] = trumpStrength(mine, trump) - trumpStrength(theirs, trump);
+        features[HIGH_CARDS] = Long.bitCount(mine & HIGH_MASK & ~trumpMask)
+                - Long.bitCount(theirs & HIGH_MASK & ~trumpMask);
+        features[LOW_CARDS] = Long.bitCount(mine & LOW_MASK & ~trumpMask)
+                - Long.bitCount(theirs & LOW_MASK & ~trumpMask);
+        features[GROUPED_CARDS] = grouped(mine) - grouped(theirs);
+        features[HAND_SIZE] = Long.bitCount(theirs) - Long.bitCount(mine);
+        features[DECK] = game.getDeckSize();
+        features[TEMPO] = game.getAttacker() == seat ? 1 : -1;
+    }
+
+    /**
+     * Взвешенная сумма признаков.
+     */
+    public double score(int[] features) {
+        double score = 0;
+        for (int i = 0; i < FEATURE_COUNT; i++) {
+            score += weights[i] * features[i];
+        }
+        return score;
+    }
+
+    public double score(SearchGame game, int seat) {
+        extract(game, seat, features);
+        return score(features);
+    }
+
+    /**
+     * Оценка вероятности победы seat; в законченной партии 0, 1 или 0.5.
+     */
+    public double winProbability(SearchGame game, int seat) {
+        if (game.isGameOver()) {
+            int winner = game.getWinner();
+            return winner == seat ? 1 : winner == 1 - seat ? 0 : 0.5;
+        }
+        return 1 / (1 + Math.exp(-score(game, seat)));
+    }
+
+    private static int trumpStrength(long hand, int trump) {
+        int strength = 0;
+        for (long m = hand >>> trump * CardSet.RANK_COUNT & SUIT_BITS; m != 0; m &= m - 1) {
+            strength += Long.numberOfTrailingZeros(m) + 1;
+        }
+        return strength;
+    }
+
+    private static int grouped(long hand) {
+        return Long.bitCount(CardPatterns.cardsOfRanks(hand, CardPatterns.pairRanks(hand)));
+    }
+
+    private static long spread(long suitBits) {
+        return suitBits | suitBits << CardSet.RANK_COUNT
+                | suitBits << 2 * CardSet.RANK_COUNT | suitBits << 3 * CardSet.RANK_COUNT;
+    }
+
+    @Override
+    public String toString() {
+        return "LinearEvaluator" + Arrays.toString(weights);
+    }
+
+    private static final class DefaultHolder {
+        static final double[] WEIGHTS = loadDefault();
+
+        private static double[] loadDefault() {
+            Path path = Paths.get(System.getProperty(PATH_PROPERTY, DEFAULT_PATH));
+            if (Files.isRegularFile(path)) {
+                try {
+                    return load(path);
+                } catch (IOException | IllegalArgumentException e) {
+                    Logger.error("LinearEvaluator", "Не удалось прочитать веса " + path, e);
+                }
+            }
+            return DEFAULT_WEIGHTS;
+        }
+    }
+}
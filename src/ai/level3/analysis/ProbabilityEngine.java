@@ -0,0 +1,132 @@
+package ai.level3.analysis;
+
+import game.CardSet;
+import game.Rules;
+
+import java.util.Arrays;
+
+/**
+ * Вероятности того, что у соперника есть карта, масть, ранг или карта,
+ * способная побить атаку. Невидимые карты (колода и рука соперника) считаются
+ * разложенными равновероятно; карты, которые соперник точно держит,
+ * учитываются отдельно. Если у соперника h неизвестных карт среди n
+ * невидимых, то вероятность не получить ни одной из s заданных карт равна
+ * C(n-s, h) / C(n, h). Эти отношения заранее посчитаны для всех n, h, s,
+ * поэтому любой запрос — это popcount и обращение к таблице. Вероятности
+ * побить каждую карту запоминаются по ключу (невидимые карты, число
+ * неизвестных карт, козырь).
+ * Не потокобезопасен: у каждого игрока свой экземпляр.
+ */
+public class ProbabilityEngine {
+    private static final int N = CardSet.CARD_COUNT;
+    private static final double[][] BINOMIAL = new double[N + 1][N + 1];
+    // MISS[n][h][s] = C(n-s, h) / C(n, h)
+    private static final double[][][] MISS = new double[N + 1][][];
+
+    private static final int CACHE_BITS = 6;
+
+    static {
+        for (int n = 0; n <= N; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + BINOMIAL[n - 1][k];
+            }
+        }
+        for (int n = 0; n <= N; n++) {
+            MISS[n] = new double[n + 1][n + 1];
+            for (int h = 0; h <= n; h++) {
+                for (int s = 0; s <= n; s++) {
+                    MISS[n][h][s] = s + h > n ? 0 : BINOMIAL[n - s][h] / BINOMIAL[n][h];
+                }
+            }
+        }
+    }
+
+    // Кэш вероятностей побить каждую карту, прямое отображение
+    private final long[] cacheUnseen = new long[1 << CACHE_BITS];
+    private final int[] cacheTag = new int[1 << CACHE_BITS];
+    private final double[][] cacheBeat = new double[1 << CACHE_BITS][N];
+
+    public ProbabilityEngine() {
+        Arrays.fill(cacheTag, -1);
+    }
+
+    /**
+     * Число сочетаний C(n, k).
+     */
+    public static double binomial(int n, int k) {
+        return k < 0 || k > n ? 0 : BINOMIAL[n][k];
+    }
+
+    /**
+     * Вероятность, что среди h карт, взятых из n, нет ни одной из s заданных.
+     */
+    public static double missProbability(int n, int h, int s) {
+        if (h <= 0 || s <= 0) {
+            return 1;
+        }
+        if (h > n) {
+            return 0;
+        }
+        return MISS[n][h][Math.min(s, n)];
+    }
+
+    /**
+     * Вероятность, что у соперника есть хотя бы одна из карт mask.
+     * @param unseen невидимые карты: колода и неизвестная часть руки соперника
+     * @param known карты, которые соперник точно держит
+     * @param handSize число карт у соперника
+     */
+    public double holdsAny(long unseen, long known, int handSize, long mask) {
+        if ((known & mask) != 0) {
+            return 1;
+        }
+        int hidden = handSize - Long.bitCount(known);
+        return 1 - missProbability(Long.bitCount(unseen), hidden, Long.bitCount(unseen & mask));
+    }
+
+    public double holdsCard(long unseen, long known, int handSize, int card) {
+        return holdsAny(unseen, known, handSize, 1L << card);
+    }
+
+    public double holdsSuit(long unseen, long known, int handSize, int suit) {
+        return holdsAny(unseen, known, handSize, (1L << CardSet.RANK_COUNT) - 1 << suit * CardSet.RANK_COUNT);
+    }
+
+    public double holdsRank(long unseen, long known, int handSize, int rank) {
+        return holdsAny(unseen, known, handSize, Rules.rankMask(rank));
+    }
+
+    /**
+     * Вероятность, что соперник может побить карту attackCard.
+     */
+    public double holdsBeater(long unseen, long known, int handSize, int attackCard, int trump) {
+        long beaters = Rules.beatMask(trump, attackCard);
+        if ((known & beaters) != 0) {
+            return 1;
+        }
+        int hidden = handSize - Long.bitCount(known);
+        return beaterProbabilities(unseen, hidden, trump)[attackCard];
+    }
+
+    /**
+     * Вероятности побить каждую из 36 карт только невидимыми картами.
+     * Массив принадлежит кэшу и перезаписывается следующими запросами.
+     */
+    public double[] beaterProbabilities(long unseen, int hidden, int trump) {
+        int tag = Math.max(hidden, 0) << 2 | trump;
+        int slot = (int) ((unseen * 0x9E3779B97F4A7C15L ^ tag) * 0xBF58476D1CE4E5B9L >>> 64 - CACHE_BITS);
+        double[] probabilities = cacheBeat[slot];
+        if (cacheTag[slot] == tag && cacheUnseen[slot] == unseen) {
+            return probabilities;
+        }
+        int n = Long.bitCount(unseen);
+        for (int card = 0; card < N; card++) {
+            int s = Long.bitCount(unseen & Rules.beatMask(trump, card));
+            probabilities[card] = 1 - missProbability(n, hidden, s);
+        }
+        cacheUnseen[slot] = unseen;
+        cacheTag[slot] = tag;
+        return probabilities;
+    }
+}
@@ -0,0 +1,142 @@
+package ai.level3.memory;
+
+import game.Card;
+import game.CardSet;
+import game.Game;
+import game.Player;
+import game.Rules;
+
+/**
+ * Память карт одного игрока. Слушает события игры и ведёт маски:
+ * сброс (отбитые карты), карты, которые точно есть у соперника (он их
+ * взял со стола и ещё не сыграл), карты, которых у соперника нет, и карты,
+ * которых игрок ещё не видел. Каждое событие обновляет маски за O(1),
+ * историю хранить не нужно.
+ *
+ * Карт, которых у соперника нет, память добивается выводом: если соперник
+ * взял, считается, что побить атаку ему было нечем. Вывод верен, пока
+ * соперник не доберёт карт из колоды; тогда он забывается. Если соперник
+ * всё же сыграл такую карту (брал нарочно), выводы сбрасываются.
+ */
+public class CardMemory implements Game.GameStateListener {
+    private final Player owner;
+    private Player opponent;
+    private int trump;
+
+    private long discarded;
+    private long opponentKnown;
+    private long opponentExcluded;
+    private long seen;
+    // Сколько карт должно быть у соперника без добора из колоды
+    private int opponentExpected;
+
+    public CardMemory(Player owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Начинает отслеживать игру с её текущего положения. Подключать память
+     * можно и после начала игры, пока никто не брал и не отбивался.
+     */
+    public void attach(Game game) {
+        opponent = game.getNextPlayer(owner);
+        trump = game.getDeck().getTrumpSuit().ordinal();
+        discarded = game.getDiscardMask();
+        opponentKnown = 0;
+        opponentExcluded = 0;
+        opponentExpected = opponent.getHandSize();
+        seen = discarded | game.getTableMask() | owner.getHandMask();
+        game.addGameStateListener(this);
+    }
+
+    public void detach(Game game) {
+        game.removeGameStateListener(this);
+    }
+
+    /**
+     * Отбитые карты, ушедшие из игры.
+     */
+    public long getDiscarded() {
+        return discarded;
+    }
+
+    /**
+     * Карты, которые точно на руке у соперника.
+     */
+    public long getOpponentKnown() {
+        return opponentKnown;
+    }
+
+    /**
+     * Карты, которых у соперника нет по выводу из его взяток.
+     */
+    public long getOpponentExcluded() {
+        return opponentExcluded;
+    }
+
+    /**
+     * Карты, которых игрок ещё не видел: они в колоде или у соперника.
+     */
+    public long getUnseen() {
+        return CardSet.ALL & ~seen;
+    }
+
+    public boolean isDiscarded(Card card) {
+        return (discarded & CardSet.bit(card)) != 0;
+    }
+
+    @Override
+    public void onGameStarted() {
+        discarded = 0;
+        opponentKnown = 0;
+        opponentExcluded = 0;
+        opponentExpected = opponent == null ? 0 : opponent.getHandSize();
+        seen = owner.getHandMask();
+    }
+
+    @Override
+    public void onGameStateChanged(Game game) {
+        // Добор из колоды виден только в своей руке
+        seen |= owner.getHandMask();
+        int size = opponent.getHandSize();
+        if (size > opponentExpected) {
+            opponentExcluded = 0;
+        }
+        opponentExpected = size;
+    }
+
+    @Override
+    public void onCardPlayed(Player player, Card card) {
+        long bit = CardSet.bit(card);
+        seen |= bit;
+        if (player != owner) {
+            opponentKnown &= ~bit;
+            if ((opponentExcluded & bit) != 0) {
+                opponentExcluded = 0;
+            }
+            opponentExpected--;
+        }
+    }
+
+    @Override
+    public void onCardsTaken(Player player, long cards) {
+        if (player != owner) {
+            opponentKnown |= cards;
+            opponentExcluded &= ~cards;
+            opponentExpected += Long.bitCount(cards);
+            // Взял одну атакующую карту — значит, нечем было её побить
+            if (Long.bitCount(cards) == 1) {
+                opponentExcluded |= Rules.beatMask(trump, Long.numberOfTrailingZeros(cards)) & ~seen;
+            }
+        }
+    }
+
+    @Override
+    public void onCardsDiscarded(long cards) {
+        discarded |= cards;
+    }
+
+    @Override
+    public void onGameEnded(Player winner) {
+    }
+}
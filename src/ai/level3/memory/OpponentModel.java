@@ -0,0 +1,468 @@
+package ai.level3.memory;
+
+import ai.Logger;
+import game.Card;
+import game.CardSet;
+import game.Game;
+import game.Player;
+import game.Rules;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Модель соперников: статистика по каждому сопернику, накопленная за все
+ * сыгранные с ним партии. Соперник опознаётся по классу и имени игрока.
+ * В профиле только счётчики фиксированного размера: сколько раз соперник
+ * брал и отбивался, сколько его взяток оказались нарочными (потом он сыграл
+ * карту, которой мог побить), как часто он тратит козыри на каждой стадии
+ * партии и какими рангами атакует.
+ *
+ * Во время партии события копит {@link Tracker} одного игрока в своих
+ * массивах, ничего не выделяя; в общий профиль они сливаются в конце партии.
+ * Модель с файлом хранит профили в компактном двоичном файле: общая модель
+ * читает его при создании, то есть при создании первого игрока, а не в
+ * бюджете времени его поиска; модель, созданная конструктором, — при первом
+ * обращении. Записывается файл в фоновом потоке каждые
+ * {@link #SAVE_INTERVAL} партий и при выходе из программы, так что игра не
+ * ждёт диска. Несколько записей подряд сливаются в одну. Модель без файла
+ * живёт только в памяти и диска не касается.
+ */
+public final class OpponentModel {
+    /** Свойство с путём к файлу профилей общей модели; без него модель только в памяти. */
+    public static final String PATH_PROPERTY = "durak.opponents";
+    /** Через сколько законченных партий профили записываются в файл. */
+    public static final int SAVE_INTERVAL = 100;
+
+    /** Стадии партии по числу карт в колоде: больше 16, больше 8, больше 0, пусто. */
+    public static final int STAGE_COUNT = 4;
+
+    // Раскладка счётчиков профиля
+    static final int GAMES = 0;
+    static final int TAKES = 1;
+    static final int DEFENDS = 2;
+    static final int SINGLE_TAKES = 3;
+    static final int VOLUNTARY_TAKES = 4;
+    static final int PLAYS = 5;
+    static final int TRUMP_PLAYS = PLAYS + STAGE_COUNT;
+    static final int ATTACK_RANKS = TRUMP_PLAYS + STAGE_COUNT;
+    static final int COUNTER_COUNT = ATTACK_RANKS + CardSet.RANK_COUNT;
+
+    static final int MAGIC = 0x314D4F44; // "DOM1"
+
+    // Пока взяток меньше, выводам из них верим без проверки
+    private static final int MIN_TAKES = 20;
+    private static final double MAX_VOLUNTARY_RATE = 0.1;
+
+    private final Path path;
+    private final Map<String, Profile> profiles = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    private final AtomicReference<byte[]> pendingSave = new AtomicReference<>();
+    private final AtomicInteger unsavedGames = new AtomicInteger();
+    private final ThreadPoolExecutor writer;
+
+    /**
+     * @param path файл профилей или null, чтобы хранить их только в памяти
+     */
+    public OpponentModel(Path path) {
+        this.path = path;
+        // Поток записи не демон: JVM дождётся последнего сохранения; без работы поток завершается
+        this.writer = new ThreadPoolExecutor(0, 1, 100, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "OpponentModel-writer");
+            thread.setDaemon(false);
+            return thread;
+        });
+        if (path != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::saveOnExit, "OpponentModel-save"));
+        }
+    }
+
+    /**
+     * Общая модель, созданная при первом обращении; её файл читается тогда же.
+     * Файл у неё есть, только если задано свойство {@link #PATH_PROPERTY};
+     * иначе профили живут, пока работает программа.
+     */
+    public static OpponentModel getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Профиль соперника; создаётся пустым, если его ещё нет.
+     */
+    public Profile getProfile(Player opponent) {
+        return getProfile(identity(opponent));
+    }
+
+    public Profile getProfile(String identity) {
+        ensureLoaded();
+        return profiles.computeIfAbsent(identity, Profile::new);
+    }
+
+    public int getProfileCount() {
+        ensureLoaded();
+        return profiles.size();
+    }
+
+    /**
+     * Новый наблюдатель за соперниками игрока owner.
+     */
+    public Tracker tracker(Player owner) {
+        return new Tracker(owner);
+    }
+
+    /**
+     * Ставит в очередь запись всех профилей в файл. Снимок берётся сразу,
+     * сама запись идёт в фоновом потоке.
+     */
+    public void saveAsync() {
+        if (path == null) {
+            return;
+        }
+        unsavedGames.set(0);
+        if (pendingSave.getAndSet(snapshot()) == null) {
+            writer.execute(this::writePending);
+        }
+    }
+
+    /**
+     * Записывает профили немедленно.
+     * @throws IOException если файл не записывается
+     */
+    public void save() throws IOException {
+        if (path != null) {
+            unsavedGames.set(0);
+            write(snapshot());
+        }
+    }
+
+    static String identity(Player player) {
+        return player.getClass().getSimpleName() + '/' + player.getName();
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                if (path != null && Files.isRegularFile(path)) {
+                    try (InputStream in = Files.newInputStream(path)) {
+                        read(in);
+                    } catch (IOException e) {
+                        Logger.error("OpponentModel", "Не удалось прочитать профили соперников " + path, e);
+                    }
+                }
+                loaded = true;
+            }
+        }
+    }
+
+    private void read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not an opponent profile file: " + path);
+        }
+        int counters = in.readUnsignedByte();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            Profile profile = new Profile(in.readUTF());
+            // Счётчики, которых нет в файле, остаются нулями, лишние пропускаются
+            for (int c = 0; c < counters; c++) {
+                int value = in.readInt();
+                if (c < COUNTER_COUNT) {
+                    profile.counters[c] = value;
+                }
+            }
+            profiles.put(profile.identity, profile);
+        }
+    }
+
+    private byte[] snapshot() {
+        ensureLoaded();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(COUNTER_COUNT);
+            Profile[] all = profiles.values().toArray(new Profile[0]);
+            out.writeInt(all.length);
+            for (Profile profile : all) {
+                out.writeUTF(profile.identity);
+                synchronized (profile) {
+                    for (int value : profile.counters) {
+                        out.writeInt(value);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void gameRecorded() {
+        if (path != null && unsavedGames.incrementAndGet() >= SAVE_INTERVAL) {
+            saveAsync();
+        }
+    }
+
+    private void saveOnExit() {
+        if (unsavedGames.get() == 0) {
+            return;
+        }
+        try {
+            save();
+        } catch (IOException e) {
+            Logger.error("OpponentModel", "Не удалось сохранить профили соперников " + path, e);
+        }
+    }
+
+    private void writePending() {
+        byte[] data = pendingSave.getAndSet(null);
+        if (data == null) {
+            return;
+        }
+        try {
+            write(data);
+        } catch (IOException e) {
+            Logger.error("OpponentModel", "Не удалось сохранить профили соперников " + path, e);
+        }
+    }
+
+    private synchronized void write(byte[] data) throws IOException {
+        // Через временный файл, чтобы оборванная запись не испортила старый
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(temp, data);
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Накопленная статистика одного соперника. Счётчики пополняются
+     * только слиянием итогов партии, читать их можно из любого потока.
+     */
+    public static final class Profile {
+        private final String identity;
+        private final int[] counters = new int[COUNTER_COUNT];
+
+        Profile(String identity) {
+            this.identity = identity;
+        }
+
+        public String getIdentity() {
+            return identity;
+        }
+
+        public int getGames() {
+            return counters[GAMES];
+        }
+
+        public int getTakes() {
+            return counters[TAKES];
+        }
+
+        public int getDefends() {
+            return counters[DEFENDS];
+        }
+
+        /**
+         * Доля атак, которые соперник взял, а не отбил.
+         */
+        public double getTakeRate() {
+            return ratio(counters[TAKES], counters[TAKES] + counters[DEFENDS]);
+        }
+
+        /**
+         * Доля взяток одной карты, при которых у соперника была карта, чтобы
+         * побить. Уличить соперника можно, только если он сыграл такую карту
+         * до добора из колоды, так что оценка занижена.
+         */
+        public double getVoluntaryTakeRate() {
+            return ratio(counters[VOLUNTARY_TAKES], counters[SINGLE_TAKES]);
+        }
+
+        /**
+         * Можно ли считать, что соперник берёт, только когда нечем побить.
+         */
+        public boolean takesOnlyWhenForced() {
+            return counters[SINGLE_TAKES] < MIN_TAKES || getVoluntaryTakeRate() <= MAX_VOLUNTARY_RATE;
+        }
+
+        /**
+         * Доля козырей среди карт, сыгранных соперником на стадии stage.
+         */
+        public double getTrumpRate(int stage) {
+            return ratio(counters[TRUMP_PLAYS + stage], counters[PLAYS + stage]);
+        }
+
+        /**
+         * Доля атак соперника картой ранга rank.
+         */
+        public double getAttackRankRate(int rank) {
+            int attacks = 0;
+            for (int r = 0; r < CardSet.RANK_COUNT; r++) {
+                attacks += counters[ATTACK_RANKS + r];
+            }
+            return ratio(counters[ATTACK_RANKS + rank], attacks);
+        }
+
+        private synchronized void merge(int[] delta) {
+            for (int i = 0; i < COUNTER_COUNT; i++) {
+                counters[i] += delta[i];
+            }
+        }
+
+        private static double ratio(int count, int total) {
+            return total == 0 ? 0 : (double) count / total;
+        }
+    }
+
+    /**
+     * Слушатель одной партии игрока: копит события соперника в массиве той же
+     * раскладки, что и профиль, и сливает его в профиль в конце партии.
+     */
+    public final class Tracker implements Game.GameStateListener {
+        private final Player owner;
+        private final int[] delta = new int[COUNTER_COUNT];
+        private Game game;
+        private Player opponent;
+        private Profile profile;
+        private int trump;
+        private boolean dirty;
+
+        // Карты, которыми соперник мог побить взятую карту, до его добора
+        private long beaters;
+        private int opponentExpected;
+
+        private Tracker(Player owner) {
+            this.owner = owner;
+        }
+
+        public void attach(Game game) {
+            flush();
+            this.game = game;
+            opponent = game.getNextPlayer(owner);
+            profile = OpponentModel.this.getProfile(opponent);
+            trump = game.getDeck().getTrumpSuit().ordinal();
+            beaters = 0;
+            opponentExpected = opponent.getHandSize();
+            game.addGameStateListener(this);
+        }
+
+        public void detach(Game game) {
+            game.removeGameStateListener(this);
+            flush();
+        }
+
+        /**
+         * Профиль текущего соперника или null до первой партии.
+         */
+        public Profile getProfile() {
+            return profile;
+        }
+
+        @Override
+        public void onGameStarted() {
+            beaters = 0;
+            opponentExpected = opponent == null ? 0 : opponent.getHandSize();
+        }
+
+        @Override
+        public void onGameStateChanged(Game game) {
+            int size = opponent.getHandSize();
+            if (size > opponentExpected) {
+                beaters = 0;
+            }
+            opponentExpected = size;
+        }
+
+        @Override
+        public void onCardPlayed(Player player, Card card) {
+            if (player == owner) {
+                return;
+            }
+            int index = card.getIndex();
+            int stage = stage(game.getDeck().getSize());
+            delta[PLAYS + stage]++;
+            if (index / CardSet.RANK_COUNT == trump) {
+                delta[TRUMP_PLAYS + stage]++;
+            }
+            if (game.isAttackingPhase()) {
+                delta[ATTACK_RANKS + index % CardSet.RANK_COUNT]++;
+            } else {
+                delta[DEFENDS]++;
+            }
+            if ((beaters & 1L << index) != 0) {
+                delta[VOLUNTARY_TAKES]++;
+                beaters = 0;
+            }
+            opponentExpected--;
+            dirty = true;
+        }
+
+        @Override
+        public void onCardsTaken(Player player, long cards) {
+            if (player == owner) {
+                return;
+            }
+            delta[TAKES]++;
+            opponentExpected += Long.bitCount(cards);
+            // Взятые карты у соперника появились только сейчас
+            beaters &= ~cards;
+            if (Long.bitCount(cards) == 1) {
+                delta[SINGLE_TAKES]++;
+                beaters |= Rules.beatMask(trump, Long.numberOfTrailingZeros(cards));
+            }
+            dirty = true;
+        }
+
+        @Override
+        public void onGameEnded(Player winner) {
+            delta[GAMES]++;
+            dirty = true;
+            flush();
+            gameRecorded();
+        }
+
+        private void flush() {
+            if (!dirty) {
+                return;
+            }
+            profile.merge(delta);
+            Arrays.fill(delta, 0);
+            dirty = false;
+        }
+    }
+
+    /**
+     * Стадия партии по числу карт в колоде, 0..{@link #STAGE_COUNT} - 1.
+     */
+    public static int stage(int deckSize) {
+        return deckSize > 16 ? 0 : deckSize > 8 ? 1 : deckSize > 0 ? 2 : 3;
+    }
+
+    private static final class DefaultHolder {
+        static final OpponentModel INSTANCE = createDefault();
+
+        private static OpponentModel createDefault() {
+            String path = System.getProperty(PATH_PROPERTY);
+            OpponentModel model = new OpponentModel(path == null || path.isEmpty() ? null : Paths.get(path));
+            // Первым обращается конструктор игрока, так что поиск хода чтения не ждёт
+            model.ensureLoaded();
+            return model;
+        }
+    }
+}
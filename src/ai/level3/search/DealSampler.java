@@ -0,0 +1,117 @@
+package ai.level3.search;
+
+import game.CardSet;
+import game.GameState;
+import game.SearchGame;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Раздаёт скрытые карты случайно и сразу согласованно со всем, что знает
+ * игрок: своя рука, стол, козырь, сброс, число карт в колоде и у соперника,
+ * карты, которые соперник точно держит, и карты, которых у него точно нет
+ * (не смог побить атаку). Ограничения сводятся к допустимым местам каждой
+ * карты: рука соперника или колода, только колода. Раздача выбирается
+ * равновероятно среди согласованных без отбраковки: сначала нужное число
+ * карт соперника из допустимых для руки, затем колода из остальных.
+ * Ограничения разбираются один раз на поиск в {@link #prepare}, а
+ * {@link #sample} только тасует готовые массивы и ничего не выделяет.
+ */
+public class DealSampler {
+    // Карты, которые могут быть у соперника, и карты только для колоды
+    private final byte[] open = new byte[CardSet.CARD_COUNT];
+    private final byte[] deckOnly = new byte[CardSet.CARD_COUNT];
+    private final byte[] order = new byte[CardSet.CARD_COUNT];
+    private int openCount;
+    private int deckOnlyCount;
+    private int need;
+
+    private long myHand;
+    private long opponentKnown;
+    private int observer;
+    private int cursor;
+    private long table;
+    private int attackCard;
+    private int trump;
+    private int attacker;
+    private boolean attackingPhase;
+
+    /**
+     * Разбирает ограничения для серии раздач из одного состояния.
+     * Если исключения несовместимы с числом карт (значит, вывод о них был
+     * ошибочным), они отбрасываются.
+     * @param state текущее состояние (скрытые карты из него не читаются)
+     * @param observer место игрока, для которого строится раздача
+     * @param knownOpponent карты, точно находящиеся у соперника
+     * @param excludedOpponent карты, которых у соперника точно нет
+     */
+    public void prepare(GameState state, int observer, long knownOpponent, long excludedOpponent) {
+        this.observer = observer;
+        myHand = state.getHand(observer);
+        // Сброс известен игроку с полной памятью: все эти карты видели на столе
+        long hidden = CardSet.ALL & ~(myHand | state.getTable() | state.getDiscardMask());
+        opponentKnown = knownOpponent & hidden;
+        long free = hidden & ~opponentKnown;
+        need = state.getHandSize(1 - observer) - Long.bitCount(opponentKnown);
+
+        long excluded = free & excludedOpponent;
+        if (Long.bitCount(free & ~excluded) < need) {
+            excluded = 0;
+        }
+        openCount = fill(open, free & ~excluded);
+        deckOnlyCount = fill(deckOnly, excluded);
+
+        cursor = order.length - state.getDeckSize();
+        table = state.getTable();
+        attackCard = state.getAttackCard();
+        trump = state.getTrump();
+        attacker = state.getAttacker();
+        attackingPhase = state.isAttackingPhase();
+    }
+
+    /**
+     * Загружает в target новую случайную раздачу для последнего {@link #prepare}.
+     */
+    public void sample(SearchGame target, RandomGenerator random) {
+        long opponentHand = opponentKnown;
+        if (deckOnlyCount == 0) {
+            // Одно тасование Фишера–Йетса: первые need карт сопернику, остальные в колоду
+            for (int i = 0; i < openCount - 1; i++) {
+                swap(open, i, i + random.nextInt(openCount - i));
+            }
+            for (int i = 0; i < need; i++) {
+                opponentHand |= 1L << open[i];
+            }
+            System.arraycopy(open, need, order, cursor, openCount - need);
+        } else {
+            for (int i = 0; i < need; i++) {
+                swap(open, i, i + random.nextInt(openCount - i));
+                opponentHand |= 1L << open[i];
+            }
+            int rest = openCount - need;
+            System.arraycopy(open, need, order, cursor, rest);
+            System.arraycopy(deckOnly, 0, order, cursor + rest, deckOnlyCount);
+            for (int i = cursor; i < order.length - 1; i++) {
+                swap(order, i, i + random.nextInt(order.length - i));
+            }
+        }
+
+        long hand0 = observer == 0 ? myHand : opponentHand;
+        long hand1 = observer == 0 ? opponentHand : myHand;
+        target.load(hand0, hand1, table, attackCard, order, cursor, trump, attacker, attackingPhase);
+    }
+
+    private static int fill(byte[] cards, long mask) {
+        int count = 0;
+        for (; mask != 0; mask &= mask - 1) {
+            cards[count++] = (byte) Long.numberOfTrailingZeros(mask);
+        }
+        return count;
+    }
+
+    private static void swap(byte[] cards, int i, int j) {
+        byte tmp = cards[i];
+        cards[i] = cards[j];
+        cards[j] = tmp;
+    }
+}
@@ -0,0 +1,208 @@
+package ai.level3.search;
+
+import game.CardSet;
+import game.GameState;
+import game.Move;
+import game.MoveGenerator;
+import game.SearchGame;
+import game.SuitCanonicalizer;
+
+/**
+ * Точный решатель эндшпиля. Когда колода пуста, а сброс известен, карты
+ * соперника вычисляются однозначно и игра становится игрой с полной
+ * информацией. Решатель перебирает её альфа-бета поиском (исход только
+ * победа или поражение, поэтому отсечение — первый выигрывающий ход),
+ * сортирует ходы от слабых карт к сильным и запоминает решённые позиции
+ * в таблице транспозиций по ключу Zobrist канонической формы
+ * ({@link SuitCanonicalizer}), так что позиции, различающиеся только
+ * перестановкой некозырных мастей, хранятся одной записью. Позиции из таблицы эндшпилей
+ * ({@link Tablebase}) не перебираются, а берутся из неё. Перебор ограничен
+ * числом узлов и сроком.
+ */
+public class EndgameSolver {
+    public static final int NO_MOVE = -1;
+    public static final int WIN = 1;
+    public static final int LOSS = -1;
+    public static final int UNKNOWN = 0;
+
+    public static final int DEFAULT_TABLE_BITS = 18;
+    public static final long DEFAULT_MAX_NODES = 2_000_000;
+    private static final int TIME_CHECK_MASK = 4095;
+    private static final int INITIAL_DEPTH = 64;
+    // Карта "взять" дороже любой, поэтому перебирается последней
+    private static final int TAKE_COST = 2 * CardSet.RANK_COUNT;
+
+    private static final byte[] EMPTY_DECK = new byte[CardSet.CARD_COUNT];
+
+    private final TranspositionTable table;
+    private final Tablebase tablebase;
+    private final long maxNodes;
+    private final SearchGame game = new SearchGame();
+    private int[][] moves = new int[INITIAL_DEPTH][MoveGenerator.MAX_MOVES];
+
+    private long nodes;
+    private long deadlineNanos;
+    private boolean aborted;
+    private int lastResult = UNKNOWN;
+
+    public EndgameSolver() {
+        this(DEFAULT_TABLE_BITS, DEFAULT_MAX_NODES, Tablebase.getDefault());
+    }
+
+    /**
+     * @param tableBits log2 числа записей таблицы транспозиций
+     * @param maxNodes предел узлов на одно решение
+     * @param tablebase таблица эндшпилей или null
+     */
+    public EndgameSolver(int tableBits, long maxNodes, Tablebase tablebase) {
+        this.table = new TranspositionTable(tableBits);
+        this.maxNodes = maxNodes;
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Позиция с пустой колодой, которую можно решать.
+     */
+    public static boolean isEndgame(GameState state) {
+        return state.getDeckSize() == 0 && !state.isGameOver();
+    }
+
+    /**
+     * Ищет лучший ход в эндшпиле для игрока observer. Рука соперника
+     * восстанавливается по своей руке, столу и сбросу.
+     * Результат решения доступен через {@link #getLastResult()}.
+     * @return выигрывающий ход; при доказанном поражении — первый ход
+     *         по порядку перебора; NO_MOVE, если решить не успели
+     */
+    public int solve(GameState state, int observer, long deadlineNanos) {
+        lastResult = UNKNOWN;
+        if (!isEndgame(state) || state.getSideToMove() != observer) {
+            return NO_MOVE;
+        }
+        long myHand = state.getHand(observer);
+        long opponentHand = CardSet.ALL & ~(myHand | state.getTable() | state.getDiscardMask());
+        long hand0 = observer == 0 ? myHand : opponentHand;
+        long hand1 = observer == 0 ? opponentHand : myHand;
+        game.load(hand0, hand1, state.getTable(), state.getAttackCard(), EMPTY_DECK,
+                EMPTY_DECK.length, state.getTrump(), state.getAttacker(), state.isAttackingPhase());
+
+        this.deadlineNanos = deadlineNanos;
+        nodes = 0;
+        aborted = false;
+
+        int[] rootMoves = moves[0];
+        int count = orderedMoves(rootMoves);
+        for (int i = 0; i < count; i++) {
+            boolean win = wins(rootMoves[i], 1);
+            if (aborted) {
+                return NO_MOVE;
+            }
+            if (win) {
+                lastResult = WIN;
+                return rootMoves[i];
+            }
+        }
+        lastResult = LOSS;
+        return rootMoves[0];
+    }
+
+    /**
+     * Итог последнего решения для ходившего: WIN, LOSS или UNKNOWN.
+     */
+    public int getLastResult() {
+        return lastResult;
+    }
+
+    /**
+     * Число узлов, просмотренных последним решением.
+     */
+    public long getLastNodes() {
+        return nodes;
+    }
+
+    /**
+     * Выигрывает ли сделавший ход move при лучшей игре обеих сторон.
+     */
+    private boolean wins(int move, int depth) {
+        int mover = game.getSideToMove();
+        game.makeMove(move);
+        boolean result;
+        if (game.isGameOver()) {
+            result = game.getWinner() == mover;
+        } else {
+            boolean next = sideToMoveWins(depth);
+            result = game.getSideToMove() == mover ? next : !next;
+        }
+        game.unmakeMove();
+        return result;
+    }
+
+    private boolean sideToMoveWins(int depth) {
+        if ((++nodes & TIME_CHECK_MASK) == 0 && System.nanoTime() >= deadlineNanos || nodes >= maxNodes) {
+            aborted = true;
+        }
+        if (aborted) {
+            return false;
+        }
+
+        if (tablebase != null && game.isAttackingPhase() && game.getTable() == 0) {
+            int attacker = game.getAttacker();
+            int result = tablebase.probe(game.getHand(attacker), game.getHand(1 - attacker), game.getTrump());
+            if (result != UNKNOWN) {
+                return result == WIN;
+            }
+        }
+
+        long key = SuitCanonicalizer.canonicalKey(game.getHand(0), game.getHand(1), game.getTable(),
+                game.getDeckMask(), game.getTrump(), game.getAttacker(), game.isAttackingPhase());
+        int probe = table.probe(key);
+        if (probe != UNKNOWN) {
+            return probe == WIN;
+        }
+
+        if (depth == moves.length) {
+            int[][] grown = new int[depth * 2][];
+            System.arraycopy(moves, 0, grown, 0, depth);
+            for (int i = depth; i < grown.length; i++) {
+                grown[i] = new int[MoveGenerator.MAX_MOVES];
+            }
+            moves = grown;
+        }
+        int[] list = moves[depth];
+        int count = orderedMoves(list);
+        boolean win = false;
+        for (int i = 0; i < count && !win; i++) {
+            win = wins(list[i], depth + 1);
+            if (aborted) {
+                return false;
+            }
+        }
+
+        table.store(key, win ? WIN : LOSS);
+        return win;
+    }
+
+    /**
+     * Ходы текущей позиции от самой слабой карты к самой сильной, "взять" последним.
+     */
+    private int orderedMoves(int[] list) {
+        int count = game.generateMoves(list);
+        int trump = game.getTrump();
+        // Вставками: ходов мало
+        for (int i = 1; i < count; i++) {
+            int move = list[i];
+            int cost = moveCost(move, trump);
+            int j = i - 1;
+            while (j >= 0 && moveCost(list[j], trump) > cost) {
+                list[j + 1] = list[j];
+                j--;
+            }
+            list[j + 1] = move;
+        }
+        return count;
+    }
+
+    private static int moveCost(int move, int trump) {
+        return Move.hasCard(move) ? GreedyRolloutPolicy.cardCost(Move.card(move), trump) : TAKE_COST;
+    }
+}
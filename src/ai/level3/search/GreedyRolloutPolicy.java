@@ -0,0 +1,58 @@
+package ai.level3.search;
+
+import game.CardSet;
+import game.Move;
+import game.SearchGame;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Быстрая политика симуляций в духе AIPlayer2lvl: ходит и кроет самой
+ * дешёвой картой, козыри дороже любых некозырных. С небольшой вероятностью
+ * делает случайный ход, чтобы симуляции не были одинаковыми.
+ */
+public class GreedyRolloutPolicy implements RolloutPolicy {
+    private final double epsilon;
+
+    public GreedyRolloutPolicy() {
+        this(0.1);
+    }
+
+    public GreedyRolloutPolicy(double epsilon) {
+        this.epsilon = epsilon;
+    }
+
+    @Override
+    public int choose(SearchGame game, int[] moves, int count, RandomGenerator random) {
+        if (count == 1) {
+            return moves[0];
+        }
+        if (random.nextDouble() < epsilon) {
+            return moves[random.nextInt(count)];
+        }
+
+        int trump = game.getTrump();
+        int best = moves[count - 1];
+        int bestCost = Integer.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (!Move.hasCard(move)) {
+                continue;
+            }
+            int cost = cardCost(Move.card(move), trump);
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = move;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Стоимость карты: значение, у козырей сдвинутое выше любой некозырной.
+     */
+    static int cardCost(int card, int trump) {
+        int cost = card % CardSet.RANK_COUNT;
+        return card / CardSet.RANK_COUNT == trump ? cost + CardSet.RANK_COUNT : cost;
+    }
+}
@@ -0,0 +1,236 @@
+package ai.level3.search;
+
+import ai.level3.analysis.LinearEvaluator;
+import game.GameState;
+import game.MoveGenerator;
+import game.SearchGame;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Information Set Monte Carlo Tree Search (SO-ISMCTS).
+ * Каждая итерация выбирает случайную раздачу скрытых карт, спускается по
+ * дереву только по ходам, допустимым в этой раздаче (UCT с учётом
+ * доступности ходов), добавляет один узел и доигрывает партию политикой
+ * симуляций. Узлы дерева хранятся в примитивных массивах, а не в объектах.
+ */
+public class IsmctsSearch implements MoveSearch {
+    public static final double DEFAULT_EXPLORATION = 0.7;
+    /** Ходов в симуляции, после которых партия считается ничьей. */
+    private static final int MAX_ROLLOUT_PLIES = 400;
+    private static final int INITIAL_CAPACITY = 1 << 12;
+    private static final int NO_NODE = -1;
+
+    private final RolloutPolicy policy;
+    private final double exploration;
+    // Оценка позиции, на которой обрывается симуляция, или null
+    private final LinearEvaluator evaluator;
+    private final int rolloutPlies;
+
+    // Узлы дерева
+    private int[] nodeMove = new int[INITIAL_CAPACITY];
+    private int[] nodeMover = new int[INITIAL_CAPACITY];
+    private int[] nodeParent = new int[INITIAL_CAPACITY];
+    private int[] nodeFirstChild = new int[INITIAL_CAPACITY];
+    private int[] nodeNextSibling = new int[INITIAL_CAPACITY];
+    private int[] nodeVisits = new int[INITIAL_CAPACITY];
+    private int[] nodeAvailable = new int[INITIAL_CAPACITY];
+    private double[] nodeReward = new double[INITIAL_CAPACITY];
+    private int size;
+
+    private final SearchGame game = new SearchGame();
+    private final DealSampler sampler = new DealSampler();
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+    // Отметки "ход допустим в этой раздаче" и "у хода уже есть узел"
+    private final int[] legalStamp = new int[MOVE_CODES];
+    private final int[] childStamp = new int[MOVE_CODES];
+    private int stamp;
+
+    private int lastIterations;
+
+    public IsmctsSearch() {
+        this(new StrategyRolloutPolicy(), DEFAULT_EXPLORATION);
+    }
+
+    public IsmctsSearch(RolloutPolicy policy, double exploration) {
+        this(policy, exploration, null, MAX_ROLLOUT_PLIES);
+    }
+
+    /**
+     * @param policy политика симуляций
+     * @param exploration коэффициент исследования UCT
+     * @param evaluator оценка, заменяющая исход симуляции после rolloutPlies
+     *                  ходов, или null, чтобы доигрывать до конца
+     * @param rolloutPlies предел ходов симуляции
+     */
+    public IsmctsSearch(RolloutPolicy policy, double exploration, LinearEvaluator evaluator, int rolloutPlies) {
+        this.policy = policy;
+        this.exploration = exploration;
+        this.evaluator = evaluator;
+        this.rolloutPlies = Math.min(rolloutPlies, MAX_ROLLOUT_PLIES);
+    }
+
+    @Override
+    public int search(GameState state, int observer, long knownOpponent, long excludedOpponent,
+                      int maxIterations, long deadlineNanos, SplittableRandom random) {
+        clearTree();
+        int forced = forcedMove(state);
+        if (forced != NO_NODE) {
+            lastIterations = 0;
+            return forced;
+        }
+
+        sampler.prepare(state, observer, knownOpponent, excludedOpponent);
+        int iterations = 0;
+        while (iterations < maxIterations) {
+            sampler.sample(game, random);
+            iterate(random);
+            iterations++;
+            if ((iterations & 63) == 0 && System.nanoTime() >= deadlineNanos) {
+                break;
+            }
+        }
+        lastIterations = iterations;
+        return bestRootMove();
+    }
+
+    @Override
+    public int getLastIterations() {
+        return lastIterations;
+    }
+
+    @Override
+    public void addRootVisits(long[] visits) {
+        for (int child = nodeFirstChild[0]; child != NO_NODE; child = nodeNextSibling[child]) {
+            visits[nodeMove[child]] += nodeVisits[child];
+        }
+    }
+
+    /**
+     * Ход без вариантов не требует поиска.
+     */
+    private int forcedMove(GameState state) {
+        int count = MoveGenerator.generate(state, moves);
+        return count == 1 ? moves[0] : NO_NODE;
+    }
+
+    private void clearTree() {
+        size = 0;
+        addNode(NO_NODE, 0, NO_NODE);
+    }
+
+    private void iterate(RandomGenerator random) {
+        int node = 0;
+
+        // Выбор и расширение
+        while (!game.isGameOver()) {
+            int mover = game.getSideToMove();
+            int count = game.generateMoves(moves);
+            stamp++;
+            for (int i = 0; i < count; i++) {
+                legalStamp[moves[i]] = stamp;
+            }
+
+            int best = NO_NODE;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int child = nodeFirstChild[node]; child != NO_NODE; child = nodeNextSibling[child]) {
+                int move = nodeMove[child];
+                if (legalStamp[move] != stamp) {
+                    continue;
+                }
+                childStamp[move] = stamp;
+                nodeAvailable[child]++;
+                double score = nodeReward[child] / nodeVisits[child]
+                        + exploration * Math.sqrt(Math.log(nodeAvailable[child]) / nodeVisits[child]);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = child;
+                }
+            }
+
+            int untried = 0;
+            for (int i = 0; i < count; i++) {
+                if (childStamp[moves[i]] != stamp) {
+                    moves[untried++] = moves[i];
+                }
+            }
+            if (untried > 0) {
+                int move = moves[random.nextInt(untried)];
+                node = addNode(node, move, mover);
+                nodeAvailable[node] = 1;
+                game.makeMove(move);
+                break;
+            }
+
+            node = best;
+            game.makeMove(nodeMove[node]);
+        }
+
+        // Симуляция
+        int plies = 0;
+        while (!game.isGameOver() && plies < rolloutPlies) {
+            int count = game.generateMoves(moves);
+            game.makeMove(policy.choose(game, moves, count, random));
+            plies++;
+        }
+        // Вероятность победы места 0
+        double reward;
+        if (evaluator != null) {
+            reward = evaluator.winProbability(game, 0);
+        } else {
+            int winner = game.getWinner();
+            reward = winner == GameState.NO_WINNER ? 0.5 : winner == 0 ? 1 : 0;
+        }
+
+        // Обратное распространение
+        for (; node != NO_NODE; node = nodeParent[node]) {
+            nodeVisits[node]++;
+            nodeReward[node] += nodeMover[node] == 0 ? reward : 1 - reward;
+        }
+    }
+
+    private int addNode(int parent, int move, int mover) {
+        if (size == nodeMove.length) {
+            grow();
+        }
+        int node = size++;
+        nodeMove[node] = move;
+        nodeMover[node] = mover;
+        nodeParent[node] = parent;
+        nodeFirstChild[node] = NO_NODE;
+        nodeVisits[node] = 0;
+        nodeAvailable[node] = 0;
+        nodeReward[node] = 0;
+        if (parent != NO_NODE) {
+            nodeNextSibling[node] = nodeFirstChild[parent];
+            nodeFirstChild[parent] = node;
+        } else {
+            nodeNextSibling[node] = NO_NODE;
+        }
+        return node;
+    }
+
+    private void grow() {
+        int capacity = nodeMove.length * 2;
+        nodeMove = Arrays.copyOf(nodeMove, capacity);
+        nodeMover = Arrays.copyOf(nodeMover, capacity);
+        nodeParent = Arrays.copyOf(nodeParent, capacity);
+        nodeFirstChild = Arrays.copyOf(nodeFirstChild, capacity);
+        nodeNextSibling = Arrays.copyOf(nodeNextSibling, capacity);
+        nodeVisits = Arrays.copyOf(nodeVisits, capacity);
+        nodeAvailable = Arrays.copyOf(nodeAvailable, capacity);
+        nodeReward = Arrays.copyOf(nodeReward, capacity);
+    }
+
+    private int bestRootMove() {
+        int best = NO_NODE;
+        for (int child = nodeFirstChild[0]; child != NO_NODE; child = nodeNextSibling[child]) {
+            if (best == NO_NODE || nodeVisits[child] > nodeVisits[best]) {
+                best = child;
+            }
+        }
+        return nodeMove[best];
+    }
+}
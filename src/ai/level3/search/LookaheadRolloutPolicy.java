@@ -0,0 +1,49 @@
+package ai.level3.search;
+
+import ai.level3.analysis.LinearEvaluator;
+import game.SearchGame;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Политика с просмотром на один ход: делает каждый допустимый ход,
+ * оценивает позицию {@link LinearEvaluator} с точки зрения ходящего и
+ * выбирает лучшую. Ничего не выделяет; экземпляр нельзя делить между
+ * потоками, как и его оценку.
+ */
+public class LookaheadRolloutPolicy implements RolloutPolicy {
+    private final LinearEvaluator evaluator;
+    private final double epsilon;
+
+    public LookaheadRolloutPolicy(LinearEvaluator evaluator) {
+        this(evaluator, 0);
+    }
+
+    public LookaheadRolloutPolicy(LinearEvaluator evaluator, double epsilon) {
+        this.evaluator = evaluator;
+        this.epsilon = epsilon;
+    }
+
+    @Override
+    public int choose(SearchGame game, int[] moves, int count, RandomGenerator random) {
+        if (count == 1) {
+            return moves[0];
+        }
+        if (epsilon > 0 && random.nextDouble() < epsilon) {
+            return moves[random.nextInt(count)];
+        }
+        int seat = game.getSideToMove();
+        int best = moves[0];
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            game.makeMove(moves[i]);
+            double value = evaluator.winProbability(game, seat);
+            game.unmakeMove();
+            if (value > bestValue) {
+                bestValue = value;
+                best = moves[i];
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,38 @@
+package ai.level3.search;
+
+import game.GameState;
+
+import java.util.SplittableRandom;
+
+/**
+ * Поиск хода по состоянию игры с точки зрения одного игрока.
+ */
+public interface MoveSearch {
+    /** Ход кодируется числом меньше 256, см. game.Move. */
+    int MOVE_CODES = 256;
+
+    /**
+     * @param state текущее состояние; скрытые карты соперника не используются
+     * @param observer место игрока, который ходит
+     * @param knownOpponent карты, точно известные в руке соперника
+     * @param excludedOpponent карты, которых в руке соперника точно нет
+     * @param maxIterations предел итераций (симуляций) на ход
+     * @param deadlineNanos момент System.nanoTime(), к которому нужно закончить
+     * @param random генератор случайных чисел
+     * @return лучший ход (см. game.Move)
+     */
+    int search(GameState state, int observer, long knownOpponent, long excludedOpponent,
+               int maxIterations, long deadlineNanos, SplittableRandom random);
+
+    /**
+     * Число итераций (симуляций) последнего поиска по всем потокам.
+     */
+    int getLastIterations();
+
+    /**
+     * Добавляет оценки ходов корня последнего поиска: visits[move] += число
+     * посещений хода (у PIMC — голосов за него). Если поиск не делал
+     * итераций, ничего не добавляет.
+     */
+    void addRootVisits(long[] visits);
+}
@@ -0,0 +1,15 @@
+package ai.level3.search;
+
+/**
+ * Способ распараллеливания поиска хода.
+ */
+public enum ParallelMode {
+    /** Один поток. */
+    NONE,
+    /** Независимые деревья в каждом потоке, посещения корня складываются. */
+    ROOT,
+    /** Одно общее дерево с атомарной статистикой и виртуальными проигрышами. */
+    TREE,
+    /** Независимые раздачи PIMC в пуле fork-join, голоса складываются. */
+    DEALS
+}
@@ -0,0 +1,181 @@
+package ai.level3.search;
+
+import game.GameState;
+import game.MoveGenerator;
+import game.SearchGame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Perfect Information Monte Carlo: перебирает случайные раздачи невидимых
+ * карт, в каждой раздаче оценивает все ходы корня как в игре с открытыми
+ * картами и голосует за лучший. Раздачи независимы и обрабатываются
+ * параллельно в пуле fork-join на заданное число потоков; их число
+ * определяется тем, сколько успеет до срока.
+ */
+public class PimcSearch implements MoveSearch {
+    /** Симуляций на каждый ход корня в одной раздаче. */
+    public static final int DEFAULT_ROLLOUTS_PER_MOVE = 4;
+    private static final int MAX_ROLLOUT_PLIES = 400;
+
+    private final int workers;
+    private final int rolloutsPerMove;
+    private final RolloutPolicy policy;
+    private final ForkJoinPool pool;
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+    private final AtomicInteger samples = new AtomicInteger();
+    private int lastIterations;
+    // Ходы корня и голоса за них в последнем поиске
+    private int[] lastMoves = new int[0];
+    private int[] lastVotes = new int[0];
+
+    public PimcSearch(int workers) {
+        this(workers, DEFAULT_ROLLOUTS_PER_MOVE, new StrategyRolloutPolicy(), SearchThreads.forkJoinPool(workers));
+    }
+
+    public PimcSearch(int workers, int rolloutsPerMove, RolloutPolicy policy, ForkJoinPool pool) {
+        this.workers = Math.max(1, workers);
+        this.rolloutsPerMove = rolloutsPerMove;
+        this.policy = policy;
+        this.pool = pool;
+    }
+
+    /**
+     * @param maxIterations предел числа раздач на ход
+     */
+    @Override
+    public int search(GameState state, int observer, long knownOpponent, long excludedOpponent,
+                      int maxIterations, long deadlineNanos, SplittableRandom random) {
+        int count = MoveGenerator.generate(state, moves);
+        if (count == 1) {
+            lastIterations = 0;
+            lastMoves = new int[0];
+            return moves[0];
+        }
+        int[] rootMoves = Arrays.copyOf(moves, count);
+        samples.set(0);
+
+        List<ForkJoinTask<Votes>> tasks = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            SplittableRandom workerRandom = random.split();
+            tasks.add(pool.submit(() -> new Worker(rootMoves).run(
+                    state, observer, knownOpponent, excludedOpponent, maxIterations, deadlineNanos, workerRandom)));
+        }
+
+        Votes total = new Votes(count);
+        for (ForkJoinTask<Votes> task : tasks) {
+            total.merge(task.join());
+        }
+        lastIterations = total.samples;
+        lastMoves = rootMoves;
+        lastVotes = total.votes;
+
+        int best = 0;
+        for (int i = 1; i < count; i++) {
+            if (total.votes[i] > total.votes[best]
+                    || total.votes[i] == total.votes[best] && total.score[i] > total.score[best]) {
+                best = i;
+            }
+        }
+        return rootMoves[best];
+    }
+
+    @Override
+    public int getLastIterations() {
+        return lastIterations;
+    }
+
+    @Override
+    public void addRootVisits(long[] visits) {
+        for (int i = 0; i < lastMoves.length; i++) {
+            visits[lastMoves[i]] += lastVotes[i];
+        }
+    }
+
+    /**
+     * Голоса и суммарные оценки ходов корня одного потока.
+     */
+    private static final class Votes {
+        final int[] votes;
+        final double[] score;
+        int samples;
+
+        Votes(int count) {
+            votes = new int[count];
+            score = new double[count];
+        }
+
+        void merge(Votes other) {
+            for (int i = 0; i < votes.length; i++) {
+                votes[i] += other.votes[i];
+                score[i] += other.score[i];
+            }
+            samples += other.samples;
+        }
+    }
+
+    private final class Worker {
+        private final int[] rootMoves;
+        private final SearchGame game = new SearchGame();
+        private final DealSampler sampler = new DealSampler();
+        private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+        private final double[] sampleScore;
+
+        Worker(int[] rootMoves) {
+            this.rootMoves = rootMoves;
+            this.sampleScore = new double[rootMoves.length];
+        }
+
+        Votes run(GameState state, int observer, long knownOpponent, long excludedOpponent,
+                  int maxSamples, long deadlineNanos, SplittableRandom random) {
+            Votes votes = new Votes(rootMoves.length);
+            int me = state.getSideToMove();
+            sampler.prepare(state, observer, knownOpponent, excludedOpponent);
+            while (System.nanoTime() < deadlineNanos && samples.getAndIncrement() < maxSamples) {
+                sampler.sample(game, random);
+                int best = 0;
+                for (int i = 0; i < rootMoves.length; i++) {
+                    game.makeMove(rootMoves[i]);
+                    sampleScore[i] = evaluate(me, random);
+                    game.unmakeMove();
+                    if (sampleScore[i] > sampleScore[best]) {
+                        best = i;
+                    }
+                    votes.score[i] += sampleScore[i];
+                }
+                votes.votes[best]++;
+                votes.samples++;
+            }
+            return votes;
+        }
+
+        /**
+         * Доля побед игрока me в симуляциях с открытыми картами из текущей позиции.
+         */
+        private double evaluate(int me, SplittableRandom random) {
+            if (game.isGameOver()) {
+                return game.getWinner() == me ? 1 : 0;
+            }
+            int basePly = game.getPly();
+            double wins = 0;
+            for (int r = 0; r < rolloutsPerMove; r++) {
+                while (!game.isGameOver() && game.getPly() - basePly < MAX_ROLLOUT_PLIES) {
+                    int count = game.generateMoves(moves);
+                    game.makeMove(policy.choose(game, moves, count, random));
+                }
+                int winner = game.getWinner();
+                wins += winner == me ? 1 : winner == GameState.NO_WINNER ? 0.5 : 0;
+                while (game.getPly() > basePly) {
+                    game.unmakeMove();
+                }
+            }
+            return wins / rolloutsPerMove;
+        }
+    }
+}
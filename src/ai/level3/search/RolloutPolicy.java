@@ -0,0 +1,20 @@
+package ai.level3.search;
+
+import game.SearchGame;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Политика выбора хода в симуляциях до конца партии.
+ */
+@FunctionalInterface
+public interface RolloutPolicy {
+    /**
+     * @param game текущая позиция симуляции
+     * @param moves допустимые ходы
+     * @param count число ходов в буфере
+     * @param random генератор случайных чисел
+     * @return выбранный ход
+     */
+    int choose(SearchGame game, int[] moves, int count, RandomGenerator random);
+}
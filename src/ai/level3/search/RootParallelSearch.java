@@ -0,0 +1,90 @@
+package ai.level3.search;
+
+import game.GameState;
+import game.MoveGenerator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Параллельный поиск по корню: каждый поток строит своё дерево ISMCTS
+ * со своим генератором, затем посещения ходов корня складываются.
+ * Потоки не делят изменяемых данных до слияния.
+ */
+public class RootParallelSearch implements MoveSearch {
+    private final IsmctsSearch[] trees;
+    private final long[] visits = new long[IsmctsSearch.MOVE_CODES];
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+    private int lastIterations;
+
+    public RootParallelSearch(int threads) {
+        trees = new IsmctsSearch[Math.max(1, threads)];
+        for (int i = 0; i < trees.length; i++) {
+            trees[i] = new IsmctsSearch();
+        }
+    }
+
+    @Override
+    public int search(GameState state, int observer, long knownOpponent, long excludedOpponent,
+                      int maxIterations, long deadlineNanos, SplittableRandom random) {
+        int count = MoveGenerator.generate(state, moves);
+        if (count == 1) {
+            lastIterations = 0;
+            Arrays.fill(visits, 0);
+            return moves[0];
+        }
+
+        int perTree = Math.max(1, maxIterations / trees.length);
+        List<Future<?>> futures = new ArrayList<>(trees.length - 1);
+        for (int i = 1; i < trees.length; i++) {
+            IsmctsSearch tree = trees[i];
+            SplittableRandom treeRandom = random.split();
+            futures.add(SearchThreads.EXECUTOR.submit(() ->
+                    tree.search(state, observer, knownOpponent, excludedOpponent,
+                            perTree, deadlineNanos, treeRandom)));
+        }
+        // Вызывающий поток тоже строит дерево
+        trees[0].search(state, observer, knownOpponent, excludedOpponent, perTree, deadlineNanos, random.split());
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search worker failed", e.getCause());
+            }
+        }
+
+        Arrays.fill(visits, 0);
+        int iterations = 0;
+        for (IsmctsSearch tree : trees) {
+            tree.addRootVisits(visits);
+            iterations += tree.getLastIterations();
+        }
+        lastIterations = iterations;
+
+        int best = moves[0];
+        for (int i = 1; i < count; i++) {
+            if (visits[moves[i]] > visits[best]) {
+                best = moves[i];
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public int getLastIterations() {
+        return lastIterations;
+    }
+
+    @Override
+    public void addRootVisits(long[] visits) {
+        for (int move = 0; move < MOVE_CODES; move++) {
+            visits[move] += this.visits[move];
+        }
+    }
+}
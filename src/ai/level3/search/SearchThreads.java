@@ -0,0 +1,32 @@
+package ai.level3.search;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Общие пулы потоков для параллельного поиска. Потоки демонические и
+ * переиспользуются между ходами и партиями.
+ */
+final class SearchThreads {
+    static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "search-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Пулы fork-join по числу потоков: игроки одной настройки делят пул
+    private static final Map<Integer, ForkJoinPool> FORK_JOIN_POOLS = new ConcurrentHashMap<>();
+
+    /**
+     * Пул fork-join ровно на threads потоков.
+     */
+    static ForkJoinPool forkJoinPool(int threads) {
+        return FORK_JOIN_POOLS.computeIfAbsent(Math.max(1, threads), ForkJoinPool::new);
+    }
+
+    private SearchThreads() {
+    }
+}
@@ -0,0 +1,40 @@
+package ai.level3.search;
+
+import ai.level3.strategy.AttackStrategy;
+import ai.level3.strategy.DefenseStrategy;
+import game.SearchGame;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Политика симуляций по правилам {@link AttackStrategy} и
+ * {@link DefenseStrategy}: выбор хода — несколько обращений к их таблицам.
+ * С небольшой вероятностью делает случайный ход, как и
+ * {@link GreedyRolloutPolicy}.
+ */
+public class StrategyRolloutPolicy implements RolloutPolicy {
+    private final AttackStrategy attack;
+    private final DefenseStrategy defense;
+    private final double epsilon;
+
+    public StrategyRolloutPolicy() {
+        this(new AttackStrategy(), new DefenseStrategy(), 0.1);
+    }
+
+    public StrategyRolloutPolicy(AttackStrategy attack, DefenseStrategy defense, double epsilon) {
+        this.attack = attack;
+        this.defense = defense;
+        this.epsilon = epsilon;
+    }
+
+    @Override
+    public int choose(SearchGame game, int[] moves, int count, RandomGenerator random) {
+        if (count == 1) {
+            return moves[0];
+        }
+        if (random.nextDouble() < epsilon) {
+            return moves[random.nextInt(count)];
+        }
+        return game.isAttackingPhase() ? attack.choose(game, moves, count) : defense.choose(game, moves, count);
+    }
+}
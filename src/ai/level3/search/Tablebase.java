@@ -0,0 +1,110 @@
+package ai.level3.search;
+
+import ai.Logger;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Таблица эндшпилей: заранее решённые позиции с пустой колодой и не более
+ * чем {@link #getMaxCards()} картами на руках у обоих игроков вместе.
+ * Файл отображается в память через {@link FileChannel#map}, в куче он не
+ * занимает места и не читается при открытии: страницы подгружаются
+ * системой по мере обращений. Запросы потокобезопасны.
+ * Файл строит {@link TablebaseBuilder} (режим {@code tablebase} в Main).
+ */
+public final class Tablebase {
+    /** Файл таблицы по умолчанию; путь можно задать свойством {@link #PATH_PROPERTY}. */
+    public static final String DEFAULT_PATH = "durak.tb";
+    public static final String PATH_PROPERTY = "durak.tablebase";
+    public static final int DEFAULT_MAX_CARDS = 12;
+
+    static final int MAGIC = 0x31425444; // "DTB1"
+    static final int HEADER_BYTES = 8;
+
+    private final MappedByteBuffer data;
+    private final TablebaseLayout layout;
+
+    private Tablebase(MappedByteBuffer data, TablebaseLayout layout) {
+        this.data = data;
+        this.layout = layout;
+    }
+
+    /**
+     * Отображает файл таблицы в память.
+     * @throws IOException если файл не читается или это не таблица эндшпилей
+     */
+    public static Tablebase open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // Отображение остаётся действительным и после закрытия канала
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            data.order(ByteOrder.LITTLE_ENDIAN);
+            if (data.capacity() < HEADER_BYTES || data.getInt(0) != MAGIC) {
+                throw new IOException("Not an endgame tablebase: " + path);
+            }
+            int maxCards = data.getInt(4);
+            if (maxCards < 2 || maxCards > TablebaseLayout.MAX_SUPPORTED_CARDS) {
+                throw new IOException("Unsupported tablebase size " + maxCards + ": " + path);
+            }
+            TablebaseLayout layout = new TablebaseLayout(maxCards);
+            long expected = HEADER_BYTES + ((layout.totalBits + 63) >>> 6) * Long.BYTES;
+            if (data.capacity() != expected) {
+                throw new IOException("Truncated tablebase " + path + ": " + data.capacity()
+                        + " bytes, expected " + expected);
+            }
+            return new Tablebase(data, layout);
+        }
+    }
+
+    /**
+     * Таблица из файла по умолчанию, открытая при первом обращении.
+     * @return таблица или null, если файла нет
+     */
+    public static Tablebase getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    public int getMaxCards() {
+        return layout.maxCards;
+    }
+
+    /**
+     * Результат позиции в фазе атаки при пустой колоде и пустом столе.
+     * @param attackerHand рука атакующего (он ходит)
+     * @param defenderHand рука защитника
+     * @param trump козырная масть
+     * @return EndgameSolver.WIN или LOSS для атакующего либо UNKNOWN,
+     *         если карт больше, чем в таблице
+     */
+    public int probe(long attackerHand, long defenderHand, int trump) {
+        long index = layout.index(attackerHand, defenderHand, trump);
+        if (index < 0) {
+            return EndgameSolver.UNKNOWN;
+        }
+        int b = data.get(HEADER_BYTES + (int) (index >>> 3));
+        return (b & 1 << (index & 7)) != 0 ? EndgameSolver.WIN : EndgameSolver.LOSS;
+    }
+
+    private static final class DefaultHolder {
+        static final Tablebase INSTANCE = openDefault();
+
+        private static Tablebase openDefault() {
+            Path path = Paths.get(System.getProperty(PATH_PROPERTY, DEFAULT_PATH));
+            if (!Files.isRegularFile(path)) {
+                return null;
+            }
+            try {
+                return open(path);
+            } catch (IOException e) {
+                Logger.error("Tablebase", "Не удалось открыть таблицу эндшпилей " + path, e);
+                return null;
+            }
+        }
+    }
+}
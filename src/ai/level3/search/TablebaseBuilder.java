@@ -0,0 +1,173 @@
+package ai.level3.search;
+
+import game.CardSet;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Строит таблицу эндшпилей ретроградным анализом: позиции перебираются от
+ * меньшего числа карт к большему, а внутри блока — от меньшей руки
+ * атакующего к большей. Отбой уменьшает число карт на две, а "взять"
+ * уменьшает руку атакующего при том же числе карт, поэтому все
+ * позиции-последователи к этому моменту уже решены. Решаются только
+ * канонические составы мастей; последователи приводятся к каноническому
+ * виду перед поиском в таблице.
+ * Бит позиции равен 1, если атакующий выигрывает.
+ */
+public final class TablebaseBuilder {
+    private final TablebaseLayout layout;
+    private final long[] bits;
+
+    public TablebaseBuilder(int maxCards) {
+        this.layout = new TablebaseLayout(maxCards);
+        this.bits = new long[(int) ((layout.totalBits + 63) >>> 6)];
+    }
+
+    /**
+     * Решает все позиции.
+     */
+    public TablebaseBuilder build() {
+        int[] suitOf = new int[layout.maxCards];
+        int[] beats = new int[layout.maxCards];
+        int[] counts = new int[TablebaseLayout.SUITS];
+        for (int k = 2; k <= layout.maxCards; k++) {
+            for (int c0 = 0; c0 <= k; c0++) {
+                for (int c1 = 0; c0 + c1 <= k; c1++) {
+                    for (int c2 = 0; c0 + c1 + c2 <= k; c2++) {
+                        int c3 = k - c0 - c1 - c2;
+                        if (c0 > CardSet.RANK_COUNT || c1 > CardSet.RANK_COUNT || c1 < c2 || c2 < c3) {
+                            continue;
+                        }
+                        counts[0] = c0;
+                        counts[1] = c1;
+                        counts[2] = c2;
+                        counts[3] = c3;
+                        solveComposition(k, counts, suitOf, beats);
+                    }
+                }
+            }
+        }
+        return this;
+    }
+
+    private void solveComposition(int k, int[] counts, int[] suitOf, int[] beats) {
+        // Карты позиции: масть за мастью, внутри масти по возрастанию ранга
+        int position = 0;
+        int trumps = (1 << counts[0]) - 1;
+        for (int suit = 0; suit < TablebaseLayout.SUITS; suit++) {
+            int start = position;
+            int suitBits = ((1 << counts[suit]) - 1) << start;
+            for (int r = 0; r < counts[suit]; r++, position++) {
+                suitOf[position] = suit;
+                // Старшие карты той же масти, а некозырную ещё и любой козырь
+                int higher = suitBits & ~((2 << position) - 1);
+                beats[position] = suit == 0 ? higher : higher | trumps;
+            }
+        }
+
+        int composition = layout.compositionIndex(k, counts[0], counts[1], counts[2]);
+        int full = (1 << k) - 1;
+        for (int size = 1; size < k; size++) {
+            // Все маски с size единицами по возрастанию (приём Госпера)
+            for (int attacker = (1 << size) - 1; attacker <= full; ) {
+                int defender = full & ~attacker;
+                if (attackerWins(k, counts, attacker, defender, suitOf, beats)) {
+                    long index = layout.index(k, composition, attacker);
+                    bits[(int) (index >>> 6)] |= 1L << index;
+                }
+                int low = attacker & -attacker;
+                int ripple = attacker + low;
+                attacker = (((ripple ^ attacker) >>> 2) / low) | ripple;
+            }
+        }
+    }
+
+    private boolean attackerWins(int k, int[] counts, int attacker, int defender,
+                                 int[] suitOf, int[] beats) {
+        if (Integer.bitCount(attacker) == 1) {
+            // Последняя карта ушла на стол — атакующий вышел
+            return true;
+        }
+        boolean lastDefenderCard = Integer.bitCount(defender) == 1;
+        for (int attacks = attacker; attacks != 0; attacks &= attacks - 1) {
+            int a = Integer.numberOfTrailingZeros(attacks);
+            if (!defenderSaves(k, counts, attacker, defender, a, lastDefenderCard, suitOf, beats)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean defenderSaves(int k, int[] counts, int attacker, int defender, int a,
+                                  boolean lastDefenderCard, int[] suitOf, int[] beats) {
+        for (int covers = defender & beats[a]; covers != 0; covers &= covers - 1) {
+            if (lastDefenderCard) {
+                return true;
+            }
+            int b = Integer.numberOfTrailingZeros(covers);
+            // Отбой: защитник становится атакующим, обе карты уходят
+            int newAttacker = removeBits(defender & ~(1 << b), Math.max(a, b), Math.min(a, b));
+            counts[suitOf[a]]--;
+            counts[suitOf[b]]--;
+            long next = layout.index(k - 2, counts, newAttacker);
+            counts[suitOf[a]]++;
+            counts[suitOf[b]]++;
+            if (get(next)) {
+                return true;
+            }
+        }
+        // Взять: атакующий продолжает с рукой на карту меньше
+        return !get(layout.index(k, counts, attacker & ~(1 << a)));
+    }
+
+    /**
+     * Убирает из маски позиции high и low (high > low), сдвигая старшие биты вниз.
+     */
+    private static int removeBits(int mask, int high, int low) {
+        mask = mask & ((1 << high) - 1) | (mask >>> high + 1) << high;
+        return mask & ((1 << low) - 1) | (mask >>> low + 1) << low;
+    }
+
+    private boolean get(long index) {
+        return (bits[(int) (index >>> 6)] & 1L << index) != 0;
+    }
+
+    /**
+     * Записывает таблицу: заголовок и биты позиций, младший бит первым.
+     */
+    public void write(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(Tablebase.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(Tablebase.MAGIC).putInt(layout.maxCards).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            ByteBuffer chunk = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            for (long word : bits) {
+                if (!chunk.hasRemaining()) {
+                    writeChunk(channel, chunk);
+                }
+                chunk.putLong(word);
+            }
+            writeChunk(channel, chunk);
+        }
+    }
+
+    private static void writeChunk(FileChannel channel, ByteBuffer chunk) throws IOException {
+        chunk.flip();
+        while (chunk.hasRemaining()) {
+            channel.write(chunk);
+        }
+        chunk.clear();
+    }
+
+    public long getPositionCount() {
+        return layout.totalBits;
+    }
+}
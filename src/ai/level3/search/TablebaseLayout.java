@@ -0,0 +1,164 @@
+package ai.level3.search;
+
+import game.CardSet;
+
+/**
+ * Раскладка таблицы эндшпилей: где в битовом массиве лежит позиция.
+ *
+ * Позиция — руки атакующего и защитника в фазе атаки при пустой колоде.
+ * Её значение не зависит от сброса и от того, какие именно ранги у карт:
+ * при пустом столе атаковать можно любой картой, а крыть — старшей той же
+ * масти или козырем. Поэтому ранги внутри каждой масти сжимаются до
+ * 0, 1, 2... среди карт на руках, а масти приводятся к каноническому виду:
+ * козырь становится мастью 0, некозырные масти идут по убыванию (число
+ * карт, маска карт атакующего). Порядок свой, а не
+ * {@link game.SuitCanonicalizer}: тот сравнивает масти по настоящим рангам,
+ * а здесь масти сравниваются уже после сжатия рангов, так что одной записью
+ * хранится больше позиций.
+ * Такую позицию задают число карт k, состав мастей (c0, c1 >= c2 >= c3) и
+ * k-битная маска карт атакующего в порядке "масть, затем ранг".
+ * Блок k содержит все канонические составы по 2^k масок; номер позиции —
+ * смещение блока + номер состава * 2^k + маска.
+ */
+final class TablebaseLayout {
+    static final int SUITS = 4;
+    /** Больше карт в таблице не поместится в int-маску и в разумный файл. */
+    static final int MAX_SUPPORTED_CARDS = 16;
+    private static final long SUIT_BITS = (1L << CardSet.RANK_COUNT) - 1;
+    // Ключ сортировки масти: число карт выше маски атакующего
+    private static final int COUNT_SHIFT = 16;
+    private static final int SUB_MASK = (1 << COUNT_SHIFT) - 1;
+
+    final int maxCards;
+    final long[] blockOffset;
+    final int[] compositions;
+    // [k][c0][c1][c2] -> номер состава в блоке k, c3 = k - c0 - c1 - c2
+    private final int[][][][] compositionIndex;
+    final long totalBits;
+
+    TablebaseLayout(int maxCards) {
+        if (maxCards < 2 || maxCards > MAX_SUPPORTED_CARDS) {
+            throw new IllegalArgumentException("Tablebase size must be 2.." + MAX_SUPPORTED_CARDS
+                    + " cards, got " + maxCards);
+        }
+        this.maxCards = maxCards;
+        blockOffset = new long[maxCards + 2];
+        compositions = new int[maxCards + 1];
+        compositionIndex = new int[maxCards + 1][CardSet.RANK_COUNT + 1][CardSet.RANK_COUNT + 1]
+                [CardSet.RANK_COUNT + 1];
+        for (int k = 0; k <= maxCards; k++) {
+            int count = 0;
+            for (int c0 = 0; c0 <= CardSet.RANK_COUNT; c0++) {
+                for (int c1 = 0; c1 <= CardSet.RANK_COUNT; c1++) {
+                    for (int c2 = 0; c2 <= CardSet.RANK_COUNT; c2++) {
+                        int c3 = k - c0 - c1 - c2;
+                        if (c3 >= 0 && c1 >= c2 && c2 >= c3) {
+                            compositionIndex[k][c0][c1][c2] = count++;
+                        }
+                    }
+                }
+            }
+            compositions[k] = count;
+            blockOffset[k + 1] = blockOffset[k] + ((long) count << k);
+        }
+        totalBits = blockOffset[maxCards + 1];
+    }
+
+    /**
+     * Номер канонического состава; c1 >= c2 >= c3.
+     */
+    int compositionIndex(int k, int c0, int c1, int c2) {
+        return compositionIndex[k][c0][c1][c2];
+    }
+
+    long index(int k, int composition, int mask) {
+        return blockOffset[k] + ((long) composition << k) + mask;
+    }
+
+    /**
+     * Номер позиции по составу в любом порядке некозырных мастей.
+     * @param counts число карт в мастях, масть 0 — козырь
+     * @param mask маска карт атакующего в порядке этих мастей
+     */
+    long index(int k, int[] counts, int mask) {
+        int c0 = counts[0];
+        int c1 = counts[1];
+        int c2 = counts[2];
+        int sub0 = mask & (1 << c0) - 1;
+        int sub1 = mask >>> c0 & (1 << c1) - 1;
+        int sub2 = mask >>> c0 + c1 & (1 << c2) - 1;
+        int sub3 = mask >>> c0 + c1 + c2;
+        return canonicalIndex(k, c0, sub0, c1 << COUNT_SHIFT | sub1,
+                c2 << COUNT_SHIFT | sub2, counts[3] << COUNT_SHIFT | sub3);
+    }
+
+    /**
+     * Номер позиции по настоящим рукам.
+     * @return номер или -1, если карт больше, чем в таблице
+     */
+    long index(long attackerHand, long defenderHand, int trump) {
+        long all = attackerHand | defenderHand;
+        int k = Long.bitCount(all);
+        if (k > maxCards) {
+            return -1;
+        }
+        int c0 = 0;
+        int sub0 = 0;
+        int key1 = 0;
+        int key2 = 0;
+        int key3 = 0;
+        for (int slot = 0; slot < SUITS; slot++) {
+            int suit = slot == 0 ? trump : slot == trump ? 0 : slot;
+            long cards = all >>> suit * CardSet.RANK_COUNT & SUIT_BITS;
+            long attacker = attackerHand >>> suit * CardSet.RANK_COUNT & SUIT_BITS;
+            int count = 0;
+            int sub = 0;
+            // Младшие биты масти — младшие ранги
+            for (; cards != 0; cards &= cards - 1) {
+                if ((attacker & cards & -cards) != 0) {
+                    sub |= 1 << count;
+                }
+                count++;
+            }
+            if (slot == 0) {
+                c0 = count;
+                sub0 = sub;
+            } else if (slot == 1) {
+                key1 = count << COUNT_SHIFT | sub;
+            } else if (slot == 2) {
+                key2 = count << COUNT_SHIFT | sub;
+            } else {
+                key3 = count << COUNT_SHIFT | sub;
+            }
+        }
+        return canonicalIndex(k, c0, sub0, key1, key2, key3);
+    }
+
+    /**
+     * Упорядочивает некозырные масти по убыванию ключа и собирает номер.
+     */
+    private long canonicalIndex(int k, int c0, int sub0, int key1, int key2, int key3) {
+        if (key1 < key2) {
+            int t = key1;
+            key1 = key2;
+            key2 = t;
+        }
+        if (key2 < key3) {
+            int t = key2;
+            key2 = key3;
+            key3 = t;
+        }
+        if (key1 < key2) {
+            int t = key1;
+            key1 = key2;
+            key2 = t;
+        }
+        int c1 = key1 >>> COUNT_SHIFT;
+        int c2 = key2 >>> COUNT_SHIFT;
+        int mask = sub0
+                | (key1 & SUB_MASK) << c0
+                | (key2 & SUB_MASK) << c0 + c1
+                | (key3 & SUB_MASK) << c0 + c1 + c2;
+        return index(k, compositionIndex[k][c0][c1][c2], mask);
+    }
+}
@@ -0,0 +1,41 @@
+package ai.level3.search;
+
+/**
+ * Таблица транспозиций решателя эндшпиля по ключам Zobrist: открытая
+ * адресация без цепочек, новая запись вытесняет старую. Ключ хранится
+ * целиком, так что ложное совпадение возможно только при коллизии
+ * 64-битных ключей.
+ */
+class TranspositionTable {
+    private final long[] keys;
+    private final byte[] value;
+    private final int shift;
+
+    TranspositionTable(int bits) {
+        int size = 1 << bits;
+        keys = new long[size];
+        value = new byte[size];
+        shift = 64 - bits;
+    }
+
+    /**
+     * @return EndgameSolver.WIN или LOSS для ходящего либо UNKNOWN, если позиции нет
+     */
+    int probe(long key) {
+        int slot = slot(key);
+        if (value[slot] != EndgameSolver.UNKNOWN && keys[slot] == key) {
+            return value[slot];
+        }
+        return EndgameSolver.UNKNOWN;
+    }
+
+    void store(long key, int result) {
+        int slot = slot(key);
+        keys[slot] = key;
+        value[slot] = (byte) result;
+    }
+
+    private int slot(long key) {
+        return (int) (key >>> shift);
+    }
+}
@@ -0,0 +1,282 @@
+package ai.level3.search;
+
+import game.GameState;
+import game.MoveGenerator;
+import game.SearchGame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Параллельный ISMCTS с одним общим деревом.
+ * Статистика узлов обновляется атомарно без блокировок; посещение
+ * засчитывается уже при спуске (виртуальный проигрыш), поэтому потоки
+ * расходятся по разным ветвям. Новые дети вставляются в список через CAS.
+ * Ёмкость дерева фиксирована: когда узлы кончаются, итерации продолжают
+ * симуляции без расширения.
+ */
+public class TreeParallelSearch implements MoveSearch {
+    public static final int DEFAULT_CAPACITY = 1 << 18;
+    private static final int MAX_ROLLOUT_PLIES = 400;
+    private static final int NO_NODE = -1;
+    // Награда хранится в полуочках: победа 2, ничья 1
+    private static final int WIN_POINTS = 2;
+    private static final int DRAW_POINTS = 1;
+
+    private final int threads;
+    private final int capacity;
+    private final double exploration;
+    private final RolloutPolicy policy;
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+    // Неизменяемые после публикации поля узла
+    private int[] nodeMove;
+    private int[] nodeMover;
+    private int[] nodeParent;
+    private int[] nodeNextSibling;
+    // Изменяемые поля узла
+    private AtomicIntegerArray nodeFirstChild;
+    private AtomicIntegerArray nodeVisits;
+    private AtomicIntegerArray nodeAvailable;
+    private AtomicLongArray nodeReward;
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger iterations = new AtomicInteger();
+
+    private Worker[] workers;
+    private int lastIterations;
+
+    public TreeParallelSearch(int threads) {
+        this(threads, DEFAULT_CAPACITY, IsmctsSearch.DEFAULT_EXPLORATION, new StrategyRolloutPolicy());
+    }
+
+    public TreeParallelSearch(int threads, int capacity, double exploration, RolloutPolicy policy) {
+        this.threads = Math.max(1, threads);
+        this.capacity = capacity;
+        this.exploration = exploration;
+        this.policy = policy;
+    }
+
+    @Override
+    public int search(GameState state, int observer, long knownOpponent, long excludedOpponent,
+                      int maxIterations, long deadlineNanos, SplittableRandom random) {
+        int count = MoveGenerator.generate(state, moves);
+        if (count == 1) {
+            lastIterations = 0;
+            return moves[0];
+        }
+        ensureAllocated();
+
+        size.set(0);
+        iterations.set(0);
+        initNode(allocate(), NO_NODE, 0, NO_NODE);
+
+        List<Future<?>> futures = new ArrayList<>(threads - 1);
+        for (int i = 1; i < threads; i++) {
+            Worker worker = workers[i];
+            SplittableRandom workerRandom = random.split();
+            futures.add(SearchThreads.EXECUTOR.submit(() ->
+                    worker.run(state, observer, knownOpponent, excludedOpponent, maxIterations, deadlineNanos, workerRandom)));
+        }
+        workers[0].run(state, observer, knownOpponent, excludedOpponent, maxIterations, deadlineNanos, random.split());
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search worker failed", e.getCause());
+            }
+        }
+        lastIterations = Math.min(iterations.get(), maxIterations);
+
+        int best = NO_NODE;
+        for (int child = nodeFirstChild.get(0); child != NO_NODE; child = nodeNextSibling[child]) {
+            if (best == NO_NODE || nodeVisits.get(child) > nodeVisits.get(best)) {
+                best = child;
+            }
+        }
+        return best == NO_NODE ? moves[0] : nodeMove[best];
+    }
+
+    @Override
+    public int getLastIterations() {
+        return lastIterations;
+    }
+
+    @Override
+    public void addRootVisits(long[] visits) {
+        if (lastIterations == 0) {
+            return;
+        }
+        for (int child = nodeFirstChild.get(0); child != NO_NODE; child = nodeNextSibling[child]) {
+            visits[nodeMove[child]] += nodeVisits.get(child);
+        }
+    }
+
+    private void ensureAllocated() {
+        if (nodeMove != null) {
+            return;
+        }
+        nodeMove = new int[capacity];
+        nodeMover = new int[capacity];
+        nodeParent = new int[capacity];
+        nodeNextSibling = new int[capacity];
+        nodeFirstChild = new AtomicIntegerArray(capacity);
+        nodeVisits = new AtomicIntegerArray(capacity);
+        nodeAvailable = new AtomicIntegerArray(capacity);
+        nodeReward = new AtomicLongArray(capacity);
+        workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker();
+        }
+    }
+
+    /**
+     * @return индекс нового узла или NO_NODE, если дерево заполнено
+     */
+    private int allocate() {
+        int node = size.getAndIncrement();
+        return node < capacity ? node : NO_NODE;
+    }
+
+    private void initNode(int node, int parent, int move, int mover) {
+        nodeMove[node] = move;
+        nodeMover[node] = mover;
+        nodeParent[node] = parent;
+        nodeNextSibling[node] = NO_NODE;
+        nodeFirstChild.set(node, NO_NODE);
+        nodeVisits.set(node, 0);
+        nodeAvailable.set(node, 1);
+        nodeReward.set(node, 0);
+    }
+
+    /**
+     * Находит ребёнка с ходом move или вставляет новый.
+     * Вставка публикует узел через CAS на голове списка детей, поэтому
+     * поля узла видны другим потокам после чтения головы.
+     * @return узел или NO_NODE, если дерево заполнено
+     */
+    private int findOrAddChild(int parent, int move, int mover) {
+        int created = NO_NODE;
+        while (true) {
+            int head = nodeFirstChild.get(parent);
+            for (int child = head; child != NO_NODE; child = nodeNextSibling[child]) {
+                if (nodeMove[child] == move) {
+                    return child;
+                }
+            }
+            if (created == NO_NODE) {
+                created = allocate();
+                if (created == NO_NODE) {
+                    return NO_NODE;
+                }
+                initNode(created, parent, move, mover);
+            }
+            nodeNextSibling[created] = head;
+            if (nodeFirstChild.compareAndSet(parent, head, created)) {
+                return created;
+            }
+        }
+    }
+
+    /**
+     * Состояние одного потока поиска.
+     */
+    private final class Worker {
+        private final SearchGame game = new SearchGame();
+        private final DealSampler sampler = new DealSampler();
+        private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+        private final int[] legalStamp = new int[IsmctsSearch.MOVE_CODES];
+        private final int[] childStamp = new int[IsmctsSearch.MOVE_CODES];
+        private int stamp;
+
+        void run(GameState state, int observer, long knownOpponent, long excludedOpponent,
+                 int maxIterations, long deadlineNanos, SplittableRandom random) {
+            sampler.prepare(state, observer, knownOpponent, excludedOpponent);
+            int done = 0;
+            while (iterations.getAndIncrement() < maxIterations) {
+                sampler.sample(game, random);
+                iterate(random);
+                if ((++done & 63) == 0 && System.nanoTime() >= deadlineNanos) {
+                    break;
+                }
+            }
+        }
+
+        private void iterate(SplittableRandom random) {
+            int node = 0;
+
+            while (!game.isGameOver()) {
+                int mover = game.getSideToMove();
+                int count = game.generateMoves(moves);
+                stamp++;
+                for (int i = 0; i < count; i++) {
+                    legalStamp[moves[i]] = stamp;
+                }
+
+                int best = NO_NODE;
+                double bestScore = Double.NEGATIVE_INFINITY;
+                for (int child = nodeFirstChild.get(node); child != NO_NODE; child = nodeNextSibling[child]) {
+                    int move = nodeMove[child];
+                    if (legalStamp[move] != stamp) {
+                        continue;
+                    }
+                    childStamp[move] = stamp;
+                    int available = nodeAvailable.incrementAndGet(child);
+                    int visits = nodeVisits.get(child);
+                    double score = visits == 0 ? Double.POSITIVE_INFINITY
+                            : nodeReward.get(child) / (double) (WIN_POINTS * visits)
+                              + exploration * Math.sqrt(Math.log(available) / visits);
+                    if (score > bestScore) {
+                        bestScore = score;
+                        best = child;
+                    }
+                }
+
+                int untried = 0;
+                for (int i = 0; i < count; i++) {
+                    if (childStamp[moves[i]] != stamp) {
+                        moves[untried++] = moves[i];
+                    }
+                }
+                if (untried > 0) {
+                    int move = moves[random.nextInt(untried)];
+                    int child = findOrAddChild(node, move, mover);
+                    game.makeMove(move);
+                    if (child != NO_NODE) {
+                        node = child;
+                        nodeVisits.incrementAndGet(node);
+                    }
+                    break;
+                }
+
+                node = best;
+                // Виртуальный проигрыш: посещение без награды до конца симуляции
+                nodeVisits.incrementAndGet(node);
+                game.makeMove(nodeMove[node]);
+            }
+
+            int plies = 0;
+            while (!game.isGameOver() && plies < MAX_ROLLOUT_PLIES) {
+                int count = game.generateMoves(moves);
+                game.makeMove(policy.choose(game, moves, count, random));
+                plies++;
+            }
+            int winner = game.getWinner();
+
+            for (; node > 0; node = nodeParent[node]) {
+                if (winner == GameState.NO_WINNER) {
+                    nodeReward.addAndGet(node, DRAW_POINTS);
+                } else if (winner == nodeMover[node]) {
+                    nodeReward.addAndGet(node, WIN_POINTS);
+                }
+            }
+        }
+    }
+}
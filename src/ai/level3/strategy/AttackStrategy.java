@@ -0,0 +1,89 @@
+package ai.level3.strategy;
+
+import ai.level3.memory.OpponentModel;
+import ai.level3.utils.CardPatterns;
+import game.CardSet;
+import game.Move;
+import game.SearchGame;
+
+import java.util.List;
+
+/**
+ * Стратегия атаки, заданная правилами. При создании правила сводятся в
+ * таблицу весов: строка — положение (стадия партии, мало ли карт у
+ * соперника), столбец — класс карты (ранг, козырь, есть ли пара). Выбор
+ * хода — по одному обращению к таблице на каждую карту.
+ */
+public final class AttackStrategy {
+    /** Правила по умолчанию. */
+    public static final List<Rule> DEFAULT_RULES = List.of(
+            // Сбрасываем мелкие карты, козыри бережём
+            Rule.always(c -> -2 * c.rank),
+            Rule.always(c -> c.trump ? -30 : 0),
+            // Пока есть колода, парой можно атаковать снова, если соперник возьмёт
+            Rule.when(s -> !s.deckEmpty(), c -> c.grouped ? 3 : 0),
+            // Без колоды козыри больше не копить
+            Rule.when(Rule.Situation::deckEmpty, c -> c.trump ? 15 : 0),
+            // Соперник вот-вот выйдет: ходим тем, что трудно побить
+            Rule.when(s -> s.deckEmpty() && s.opponentShort, c -> 4 * c.rank));
+
+    static final int SITUATIONS = OpponentModel.STAGE_COUNT * 2;
+    static final int CLASSES = 4 * CardSet.RANK_COUNT;
+
+    private final int[] table = new int[SITUATIONS * CLASSES];
+
+    public AttackStrategy() {
+        this(DEFAULT_RULES);
+    }
+
+    public AttackStrategy(List<Rule> rules) {
+        for (int situation = 0; situation < SITUATIONS; situation++) {
+            Rule.Situation s = new Rule.Situation(situation >> 1, (situation & 1) != 0, -1, false);
+            for (int cls = 0; cls < CLASSES; cls++) {
+                Rule.Candidate c = new Rule.Candidate(cls % CardSet.RANK_COUNT,
+                        (cls / CardSet.RANK_COUNT & 1) != 0, cls >= 2 * CardSet.RANK_COUNT, false);
+                int weight = 0;
+                for (Rule rule : rules) {
+                    if (rule.condition.test(s)) {
+                        weight += rule.weight.applyAsInt(c);
+                    }
+                }
+                table[situation * CLASSES + cls] = weight;
+            }
+        }
+    }
+
+    /**
+     * Лучший ход атаки среди moves; PASS, если карт нет.
+     */
+    public int choose(SearchGame game, int[] moves, int count) {
+        int seat = game.getSideToMove();
+        long hand = game.getHand(seat);
+        int trump = game.getTrump();
+        int pairs = CardPatterns.pairRanks(hand);
+        int row = situation(game.getDeckSize(), Long.bitCount(game.getHand(1 - seat))) * CLASSES;
+
+        int best = moves[count - 1];
+        int bestWeight = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (!Move.hasCard(move)) {
+                continue;
+            }
+            int card = Move.card(move);
+            int rank = card % CardSet.RANK_COUNT;
+            int cls = rank + (card / CardSet.RANK_COUNT == trump ? CardSet.RANK_COUNT : 0)
+                    + (pairs >>> rank & 1) * 2 * CardSet.RANK_COUNT;
+            int weight = table[row + cls];
+            if (weight > bestWeight) {
+                bestWeight = weight;
+                best = move;
+            }
+        }
+        return best;
+    }
+
+    static int situation(int deckSize, int opponentCards) {
+        return OpponentModel.stage(deckSize) << 1 | (opponentCards <= 2 ? 1 : 0);
+    }
+}
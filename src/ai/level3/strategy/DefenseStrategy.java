@@ -0,0 +1,86 @@
+package ai.level3.strategy;
+
+import game.CardSet;
+import game.Move;
+import game.SearchGame;
+
+import java.util.List;
+
+/**
+ * Стратегия защиты, заданная правилами. При создании правила сводятся в
+ * таблицу весов: строка — положение (стадия партии, мало ли карт у
+ * соперника, ранг атакующей карты и козырь ли она), столбец — класс
+ * карты (ранг и козырь) или взятка. Выбор хода — по одному обращению к
+ * таблице на каждого кандидата.
+ */
+public final class DefenseStrategy {
+    /** Правила по умолчанию. */
+    public static final List<Rule> DEFAULT_RULES = List.of(
+            // Кроем самой младшей картой, козырь дороже любой некозырной, взятка дороже всего
+            Rule.always(c -> c.take ? -40 : -2 * c.rank - (c.trump ? 20 : 0)),
+            // В начале партии старший козырь на мелочь не тратим
+            Rule.when(s -> s.stage == 0 && !s.attackTrump && s.attackRank < 3,
+                    c -> c.trump && c.rank >= 5 ? -25 : 0),
+            // Соперник вот-вот выйдет: брать нельзя
+            Rule.when(s -> s.deckEmpty() && s.opponentShort, c -> c.take ? -30 : 0));
+
+    private static final int ATTACK_CLASSES = 2 * CardSet.RANK_COUNT;
+    static final int SITUATIONS = AttackStrategy.SITUATIONS * ATTACK_CLASSES;
+    static final int CLASSES = 2 * CardSet.RANK_COUNT + 1;
+    private static final int TAKE_CLASS = CLASSES - 1;
+
+    private final int[] table = new int[SITUATIONS * CLASSES];
+
+    public DefenseStrategy() {
+        this(DEFAULT_RULES);
+    }
+
+    public DefenseStrategy(List<Rule> rules) {
+        for (int situation = 0; situation < SITUATIONS; situation++) {
+            int attack = situation % ATTACK_CLASSES;
+            int outer = situation / ATTACK_CLASSES;
+            Rule.Situation s = new Rule.Situation(outer >> 1, (outer & 1) != 0,
+                    attack % CardSet.RANK_COUNT, attack >= CardSet.RANK_COUNT);
+            for (int cls = 0; cls < CLASSES; cls++) {
+                Rule.Candidate c = cls == TAKE_CLASS
+                        ? new Rule.Candidate(-1, false, false, true)
+                        : new Rule.Candidate(cls % CardSet.RANK_COUNT, cls >= CardSet.RANK_COUNT, false, false);
+                int weight = 0;
+                for (Rule rule : rules) {
+                    if (rule.condition.test(s)) {
+                        weight += rule.weight.applyAsInt(c);
+                    }
+                }
+                table[situation * CLASSES + cls] = weight;
+            }
+        }
+    }
+
+    /**
+     * Лучший ход защиты среди moves: карта или TAKE.
+     */
+    public int choose(SearchGame game, int[] moves, int count) {
+        int seat = game.getSideToMove();
+        int trump = game.getTrump();
+        int row = (AttackStrategy.situation(game.getDeckSize(), Long.bitCount(game.getHand(1 - seat)))
+                * ATTACK_CLASSES + cardClass(game.getAttackCard(), trump)) * CLASSES;
+
+        int best = moves[count - 1];
+        int bestWeight = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int cls = Move.hasCard(move) ? cardClass(Move.card(move), trump) : TAKE_CLASS;
+            int weight = table[row + cls];
+            if (weight > bestWeight) {
+                bestWeight = weight;
+                best = move;
+            }
+        }
+        return best;
+    }
+
+    private static int cardClass(int card, int trump) {
+        int rank = card % CardSet.RANK_COUNT;
+        return card / CardSet.RANK_COUNT == trump ? rank + CardSet.RANK_COUNT : rank;
+    }
+}
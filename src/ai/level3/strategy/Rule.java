@@ -0,0 +1,71 @@
+package ai.level3.strategy;
+
+import ai.level3.memory.OpponentModel;
+
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Правило стратегии: в положениях, где выполнено условие, добавляет
+ * каждому кандидату вес. Правила разбираются один раз, когда стратегия
+ * сводит их в таблицу; во время игры они не вызываются.
+ */
+public final class Rule {
+    final Predicate<Situation> condition;
+    final ToIntFunction<Candidate> weight;
+
+    private Rule(Predicate<Situation> condition, ToIntFunction<Candidate> weight) {
+        this.condition = condition;
+        this.weight = weight;
+    }
+
+    public static Rule always(ToIntFunction<Candidate> weight) {
+        return new Rule(s -> true, weight);
+    }
+
+    public static Rule when(Predicate<Situation> condition, ToIntFunction<Candidate> weight) {
+        return new Rule(condition, weight);
+    }
+
+    /**
+     * Признаки положения, от которых зависят условия правил.
+     */
+    public static final class Situation {
+        /** Стадия партии, см. {@link OpponentModel#stage(int)}. */
+        public final int stage;
+        /** У соперника не больше двух карт. */
+        public final boolean opponentShort;
+        /** Ранг атакующей карты при защите, иначе -1. */
+        public final int attackRank;
+        public final boolean attackTrump;
+
+        Situation(int stage, boolean opponentShort, int attackRank, boolean attackTrump) {
+            this.stage = stage;
+            this.opponentShort = opponentShort;
+            this.attackRank = attackRank;
+            this.attackTrump = attackTrump;
+        }
+
+        public boolean deckEmpty() {
+            return stage == OpponentModel.STAGE_COUNT - 1;
+        }
+    }
+
+    /**
+     * Класс карты-кандидата: ранг, козырь ли она, есть ли на руке ещё карта
+     * того же ранга. Взятка — отдельный кандидат без карты.
+     */
+    public static final class Candidate {
+        public final int rank;
+        public final boolean trump;
+        public final boolean grouped;
+        public final boolean take;
+
+        Candidate(int rank, boolean trump, boolean grouped, boolean take) {
+            this.rank = rank;
+            this.trump = trump;
+            this.grouped = grouped;
+            this.take = take;
+        }
+    }
+}
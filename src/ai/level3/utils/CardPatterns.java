@@ -0,0 +1,182 @@
+package ai.level3.utils;
+
+import game.CardSet;
+import game.Rules;
+
+/**
+ * Ранговые узоры руки: сколько карт каждого ранга, какие ранги собраны
+ * парами и тройками, сколько карт можно подкинуть вслед за атакой,
+ * младшая карта каждой масти. Рука хранится двумя словами: маской карт
+ * (её 9-битные доли — маски мастей) и упакованными счётчиками рангов по
+ * 4 бита на ранг. Все запросы — несколько побитовых операций над ними.
+ *
+ * Статические методы работают с любой маской, например с рукой в
+ * {@link game.SearchGame}; экземпляр ведёт счётчики одной руки
+ * инкрементально при добавлении и удалении карт.
+ */
+public final class CardPatterns {
+    private static final int SUIT_COUNT = 4;
+    private static final int SUIT_BITS = (1 << CardSet.RANK_COUNT) - 1;
+    private static final long NIBBLE_MASK = 0xFL;
+
+    // SPREAD[m] — 9-битная маска рангов, разложенная по полубайтам
+    private static final long[] SPREAD = new long[1 << CardSet.RANK_COUNT];
+
+    static {
+        for (int mask = 1; mask < SPREAD.length; mask++) {
+            int rank = Integer.numberOfTrailingZeros(mask);
+            SPREAD[mask] = SPREAD[mask & mask - 1] | 1L << 4 * rank;
+        }
+    }
+
+    private long hand;
+    private long counts;
+
+    public CardPatterns() {
+    }
+
+    public CardPatterns(long hand) {
+        set(hand);
+    }
+
+    public void set(long hand) {
+        this.hand = hand;
+        this.counts = rankCounts(hand);
+    }
+
+    public void add(int card) {
+        long bit = 1L << card;
+        if ((hand & bit) == 0) {
+            hand |= bit;
+            counts += 1L << 4 * (card % CardSet.RANK_COUNT);
+        }
+    }
+
+    public void remove(int card) {
+        long bit = 1L << card;
+        if ((hand & bit) != 0) {
+            hand &= ~bit;
+            counts -= 1L << 4 * (card % CardSet.RANK_COUNT);
+        }
+    }
+
+    public long getHand() {
+        return hand;
+    }
+
+    /**
+     * Упакованные счётчики рангов, см. {@link #rankCounts(long)}.
+     */
+    public long getCounts() {
+        return counts;
+    }
+
+    public int count(int rank) {
+        return count(counts, rank);
+    }
+
+    public int pairRanks() {
+        return pairRanks(hand);
+    }
+
+    public int followUps(int card) {
+        return count(counts, card % CardSet.RANK_COUNT) - (int) (hand >>> card & 1);
+    }
+
+    /**
+     * Счётчики рангов руки: биты 4r..4r+3 — число карт ранга r (0..4).
+     */
+    public static long rankCounts(long hand) {
+        return SPREAD[suit(hand, 0)] + SPREAD[suit(hand, 1)]
+                + SPREAD[suit(hand, 2)] + SPREAD[suit(hand, 3)];
+    }
+
+    public static int count(long counts, int rank) {
+        return (int) (counts >>> 4 * rank & NIBBLE_MASK);
+    }
+
+    /**
+     * Карты масти suit как 9-битная маска рангов.
+     */
+    public static int suit(long hand, int suit) {
+        return (int) (hand >>> suit * CardSet.RANK_COUNT) & SUIT_BITS;
+    }
+
+    /**
+     * Ранги, которые есть на руке хотя бы одной картой.
+     */
+    public static int ranks(long hand) {
+        return suit(hand, 0) | suit(hand, 1) | suit(hand, 2) | suit(hand, 3);
+    }
+
+    /**
+     * Ранги, которых на руке не меньше двух карт.
+     */
+    public static int pairRanks(long hand) {
+        int s0 = suit(hand, 0);
+        int s1 = suit(hand, 1);
+        int s2 = suit(hand, 2);
+        int s3 = suit(hand, 3);
+        return (s0 | s1) & (s2 | s3) | s0 & s1 | s2 & s3;
+    }
+
+    /**
+     * Ранги, которых на руке не меньше трёх карт.
+     */
+    public static int tripleRanks(long hand) {
+        int s0 = suit(hand, 0);
+        int s1 = suit(hand, 1);
+        int s2 = suit(hand, 2);
+        int s3 = suit(hand, 3);
+        return s0 & s1 & (s2 | s3) | s2 & s3 & (s0 | s1);
+    }
+
+    /**
+     * Ранги, собранные на руке всеми четырьмя картами.
+     */
+    public static int quadRanks(long hand) {
+        return suit(hand, 0) & suit(hand, 1) & suit(hand, 2) & suit(hand, 3);
+    }
+
+    /**
+     * Все карты руки тех рангов, что входят в маску рангов ranks.
+     */
+    public static long cardsOfRanks(long hand, int ranks) {
+        return hand & (ranks | (long) ranks << CardSet.RANK_COUNT
+                | (long) ranks << 2 * CardSet.RANK_COUNT | (long) ranks << 3 * CardSet.RANK_COUNT);
+    }
+
+    /**
+     * Сколько других карт того же ранга, что и card, остаётся на руке:
+     * столько атак можно сделать тем же рангом подряд.
+     */
+    public static int followUps(long hand, int card) {
+        return Long.bitCount(hand & Rules.rankMask(card % CardSet.RANK_COUNT) & ~(1L << card));
+    }
+
+    /**
+     * Сколько карт руки можно подкинуть к картам стола table.
+     */
+    public static int throwIns(long hand, long table) {
+        return table == 0 ? 0 : Long.bitCount(hand & Rules.rankMaskOf(table));
+    }
+
+    /**
+     * Младшая карта каждой масти руки, по одной на масть.
+     */
+    public static long lowestPerSuit(long hand) {
+        long lowest = 0;
+        for (int suit = 0; suit < SUIT_COUNT; suit++) {
+            long cards = hand & (long) SUIT_BITS << suit * CardSet.RANK_COUNT;
+            lowest |= cards & -cards;
+        }
+        return lowest;
+    }
+
+    /**
+     * Младшая карта каждой некозырной масти руки.
+     */
+    public static long lowestNonTrump(long hand, int trump) {
+        return lowestPerSuit(hand & ~((long) SUIT_BITS << trump * CardSet.RANK_COUNT));
+    }
+}
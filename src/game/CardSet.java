@@ -0,0 +1,155 @@
+package game;
+
+import java.util.*;
+
+/**
+ * Set of cards packed into a single long.
+ * Bit index of a card is suit * 9 + rank (see {@link Card#getIndex()}),
+ * so add/remove/contains/size are single bit operations.
+ */
+public final class CardSet implements Iterable<Card> {
+    public static final int CARD_COUNT = 36;
+    public static final int RANK_COUNT = 9;
+    public static final long EMPTY = 0L;
+    public static final long ALL = (1L << CARD_COUNT) - 1;
+
+    private long bits;
+
+    public CardSet() {
+        this(EMPTY);
+    }
+
+    public CardSet(long bits) {
+        this.bits = bits & ALL;
+    }
+
+    public static long bit(Card card) {
+        return 1L << card.getIndex();
+    }
+
+    public static long suitMask(Card.Suit suit) {
+        return 0x1FFL << (suit.ordinal() * RANK_COUNT);
+    }
+
+    public static long maskOf(Collection<Card> cards) {
+        long mask = EMPTY;
+        for (Card card : cards) {
+            if (card != null) {
+                mask |= bit(card);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Appends the cards of a mask to the list in index order.
+     */
+    public static void addTo(long mask, List<Card> out) {
+        for (long m = mask; m != 0; m &= m - 1) {
+            out.add(Card.byIndex(Long.numberOfTrailingZeros(m)));
+        }
+    }
+
+    public static List<Card> toList(long mask) {
+        List<Card> list = new ArrayList<>(Long.bitCount(mask));
+        addTo(mask, list);
+        return list;
+    }
+
+    public long bits() {
+        return bits;
+    }
+
+    public void setBits(long bits) {
+        this.bits = bits & ALL;
+    }
+
+    public boolean add(Card card) {
+        long b = bit(card);
+        boolean added = (bits & b) == 0;
+        bits |= b;
+        return added;
+    }
+
+    public void addAll(long mask) {
+        bits |= mask & ALL;
+    }
+
+    public boolean remove(Card card) {
+        long b = bit(card);
+        boolean removed = (bits & b) != 0;
+        bits &= ~b;
+        return removed;
+    }
+
+    public void removeAll(long mask) {
+        bits &= ~mask;
+    }
+
+    public boolean contains(Card card) {
+        return card != null && (bits & bit(card)) != 0;
+    }
+
+    public int size() {
+        return Long.bitCount(bits);
+    }
+
+    public boolean isEmpty() {
+        return bits == 0;
+    }
+
+    public void clear() {
+        bits = EMPTY;
+    }
+
+    public List<Card> toList() {
+        return toList(bits);
+    }
+
+    @Override
+    public Iterator<Card> iterator() {
+        return new Iterator<Card>() {
+            private long remaining = bits;
+
+            @Override
+            public boolean hasNext() {
+                return remaining != 0;
+            }
+
+            @Override
+            public Card next() {
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                Card card = Card.byIndex(Long.numberOfTrailingZeros(remaining));
+                remaining &= remaining - 1;
+                return card;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof CardSet)) return false;
+        return bits == ((CardSet) obj).bits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(bits);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (long m = bits; m != 0; m &= m - 1) {
+            Card card = Card.byIndex(Long.numberOfTrailingZeros(m));
+            sb.append(card);
+            if ((m & (m - 1)) != 0) {
+                sb.append(' ');
+            }
+        }
+        return "{" + sb + "}";
+    }
+}
@@ -1,83 +1,178 @@
-package game;
-
-import java.util.*;
-import game.Card.Suit;
-
-public class Deck {
-    private final List<Card> cards = new ArrayList<>(36);
-    private final Random random = new Random();
-    private Suit trumpSuit;
-    
-    public Deck() {
-        initializeDeck();
-        shuffle();
-        if (!cards.isEmpty()) {
-            trumpSuit = cards.get(0).getSuit();
-        }
-    }
-    
-    private void initializeDeck() {
-        for (Card.Suit suit : Card.Suit.values()) {
-            for (Card.Rank rank : Card.Rank.values()) {
-                cards.add(new Card(suit, rank));
-            }
-        }
-    }
-    
-    public void shuffle() {
-        for (int i = 0; i < cards.size(); i++) {
-            int randomIndex = random.nextInt(cards.size());
-            Collections.swap(cards, i, randomIndex);
-        }
-    }
-    
-    public Card drawCard() {
-        if (cards.isEmpty()) {
-            return null;
-        }
-        return cards.remove(0);
-    }
-    
-    public int remainingCards() {
-        return cards.size();
-    }
-    
-    public Suit getTrumpSuit() {
-        return trumpSuit;
-    }
-    
-    public List<Card> getCards() {
-        return new ArrayList<>(cards);
-    }
-    
-    public void revealTrump() {
-        if (!cards.isEmpty()) {
-            cards.get(0).setFaceUp(true);
-        }
-    }
-    
-    public void returnCards(List<Card> cardsToReturn) {
-        cards.addAll(cardsToReturn);
-        shuffle();
-    }
-    
-    public boolean isEmpty() {
-        return cards.isEmpty();
-    }
-    
-    public int getSize() {
-        return cards.size();
-    }
-    
-    public void removeCard(Card card) {
-        cards.remove(card);
-    }
-    
-    public void removeCards(List<Card> cardsToRemove) {
-        cards.removeAll(cardsToRemove);
-    }
-    
-    public void addCards(List<Card> newCards) {
-        cards.addAll(newCards);
-    }
-}
\ No newline at end of file
+package game;
+
+import java.util.*;
+import java.util.random.RandomGenerator;
+import game.Card.Suit;
+
+public class Deck {
+    // Cards [cursor, length) are still in the deck, cards[cursor] is drawn next
+    private final Card[] cards = new Card[CardSet.CARD_COUNT];
+    private int cursor;
+    private final CardSet remaining = new CardSet();
+    private final RandomGenerator random;
+    private Suit trumpSuit;
+    private boolean trumpRevealed;
+
+    public Deck() {
+        this(new SplittableRandom());
+    }
+
+    public Deck(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    public Deck(RandomGenerator random) {
+        this.random = random;
+        initializeDeck();
+        shuffle();
+        trumpSuit = cards[cursor].getSuit();
+    }
+
+    private void initializeDeck() {
+        for (int i = 0; i < CardSet.CARD_COUNT; i++) {
+            cards[i] = Card.byIndex(i);
+        }
+        cursor = 0;
+        remaining.setBits(CardSet.ALL);
+    }
+
+    /**
+     * Fisher-Yates shuffle of the cards still in the deck.
+     */
+    public void shuffle() {
+        for (int i = cards.length - 1; i > cursor; i--) {
+            int j = cursor + random.nextInt(i - cursor + 1);
+            Card tmp = cards[i];
+            cards[i] = cards[j];
+            cards[j] = tmp;
+        }
+    }
+
+    public Card drawCard() {
+        if (cursor == cards.length) {
+            return null;
+        }
+        Card card = cards[cursor++];
+        remaining.remove(card);
+        return card;
+    }
+
+    public int remainingCards() {
+        return cards.length - cursor;
+    }
+
+    int getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Whole draw order as card indices, including already drawn positions.
+     */
+    byte[] copyOrder() {
+        byte[] order = new byte[cards.length];
+        for (int i = 0; i < cards.length; i++) {
+            order[i] = (byte) cards[i].getIndex();
+        }
+        return order;
+    }
+
+    void restore(byte[] order, int cursor, Suit trumpSuit) {
+        long mask = 0;
+        for (int i = 0; i < cards.length; i++) {
+            cards[i] = Card.byIndex(order[i]);
+            if (i >= cursor) {
+                mask |= 1L << order[i];
+            }
+        }
+        this.cursor = cursor;
+        this.trumpSuit = trumpSuit;
+        remaining.setBits(mask);
+    }
+
+    public Suit getTrumpSuit() {
+        return trumpSuit;
+    }
+
+    public RandomGenerator getRandom() {
+        return random;
+    }
+
+    public List<Card> getCards() {
+        return new ArrayList<>(Arrays.asList(cards).subList(cursor, cards.length));
+    }
+
+    public long getCardMask() {
+        return remaining.bits();
+    }
+
+    public boolean containsCard(Card card) {
+        return remaining.contains(card);
+    }
+
+    public void revealTrump() {
+        trumpRevealed = true;
+    }
+
+    public boolean isTrumpRevealed() {
+        return trumpRevealed;
+    }
+
+    /**
+     * Puts cards back on top of the deck and reshuffles it.
+     */
+    public void returnCards(List<Card> cardsToReturn) {
+        for (Card card : cardsToReturn) {
+            if (card != null && remaining.add(card)) {
+                cards[--cursor] = card;
+            }
+        }
+        shuffle();
+    }
+
+    public boolean isEmpty() {
+        return cursor == cards.length;
+    }
+
+    public int getSize() {
+        return cards.length - cursor;
+    }
+
+    public void removeCard(Card card) {
+        if (card != null) {
+            removeMask(CardSet.bit(card));
+        }
+    }
+
+    public void removeCards(List<Card> cardsToRemove) {
+        removeMask(CardSet.maskOf(cardsToRemove));
+    }
+
+    private void removeMask(long mask) {
+        mask &= remaining.bits();
+        if (mask == 0) {
+            return;
+        }
+        remaining.removeAll(mask);
+        // Compact the kept cards towards the bottom, preserving their order
+        int write = cards.length;
+        for (int read = cards.length - 1; read >= cursor; read--) {
+            if ((mask & CardSet.bit(cards[read])) == 0) {
+                cards[--write] = cards[read];
+            }
+        }
+        cursor = write;
+    }
+
+    /**
+     * Puts cards under the bottom of the deck.
+     */
+    public void addCards(List<Card> newCards) {
+        for (Card card : newCards) {
+            if (card != null && remaining.add(card)) {
+                System.arraycopy(cards, cursor, cards, cursor - 1, cards.length - cursor);
+                cursor--;
+                cards[cards.length - 1] = card;
+            }
+        }
+    }
+}
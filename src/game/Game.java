@@ -1,384 +1,517 @@
-package game;
-
-import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
-import game.Card.Suit;
-import game.Card.Rank;
-import game.Player;
-import game.Deck;
-
-public class Game {
-    private static final int INITIAL_CARDS = 6;
-    private final Deck deck = new Deck();
-    private final List<Player> players = new ArrayList<>();
-    private final List<Card> cardsOnTable = new ArrayList<>();
-    private int currentPlayerIndex = 0;
-    private boolean gameOver = false;
-    private boolean attackingPhase = true;
-    private Player attacker;
-    private Player defender;
-    private final List<Player> activePlayers = new ArrayList<>();
-    private final List<Card> discardPile = new ArrayList<>();
-    private final List<GameStateListener> listeners = new ArrayList<>();
-    private boolean firstTurn = true;
-    
-    public Game(Player player1, Player player2) {
-        players.add(player1);
-        players.add(player2);
-        activePlayers.addAll(players);
-    }
-    
-    public void startGame() {
-        initializeHands();
-        determineFirstAttacker();
-        notifyGameStarted();
-    }
-    
-    private void initializeHands() {
-        for (Player player : players) {
-            List<Card> initialCards = new ArrayList<>();
-            for (int i = 0; i < INITIAL_CARDS; i++) {
-                Card card = deck.drawCard();
-                if (card != null) {
-                    initialCards.add(card);
-                }
-            }
-            player.addCards(initialCards);
-        }
-        
-        // Sort hands by trump suit
-        for (Player player : players) {
-            player.sortHand(deck.getTrumpSuit());
-        }
-    }
-    
-    private void determineFirstAttacker() {
-        // Determine the player with the lowest trump card
-        Player minTrumpPlayer = null;
-        Card minTrumpCard = null;
-        
-        for (Player player : players) {
-            for (Card card : player.getHand()) {
-                if (card.isTrump(deck.getTrumpSuit())) {
-                    if (minTrumpCard == null || 
-                        card.getRank().getValue() < minTrumpCard.getRank().getValue()) {
-                        minTrumpCard = card;
-                        minTrumpPlayer = player;
-                    }
-                }
-            }
-        }
-        
-        if (minTrumpPlayer != null) {
-            currentPlayerIndex = players.indexOf(minTrumpPlayer);
-        } else {
-            // If no trumps, choose randomly
-            currentPlayerIndex = new Random().nextInt(players.size());
-        }
-        
-        attacker = players.get(currentPlayerIndex);
-        defender = getNextPlayer(attacker);
-    }
-    
-    public void nextTurn() {
-        if (gameOver) return;
-        
-        if (attackingPhase) {
-            // End of attack phase
-            if (cardsOnTable.isEmpty()) {
-                // If no one played, move to next player
-                endAttackPhase();
-            } else {
-                // Switch to defense
-                attackingPhase = false;
-                defender = getNextPlayer(attacker);
-            }
-        } else {
-            // After defense
-            if (cardsOnTable.isEmpty()) {
-                // All cards are covered, move to next player
-                endAttackPhase();
-            } else {
-                // If there are uncovered cards, defender takes them
-                handleFailedDefense();
-            }
-        }
-        
-        checkForGameOver();
-        notifyStateChanged();
-    }
-    
-    private void endAttackPhase() {
-        // Pass the turn
-        attacker = defender;
-        defender = getNextPlayer(attacker);
-        attackingPhase = true;
-        cardsOnTable.clear();
-        firstTurn = false;
-        
-        // Deal cards
-        dealCards();
-    }
-    
-    private void handleFailedDefense() {
-        // Defender takes the cards
-        defender.addCards(new ArrayList<>(cardsOnTable));
-        cardsOnTable.clear();
-        
-        // Deal cards
-        dealCards();
-        
-        // Switch to next player
-        defender = getNextPlayer(defender);
-        attacker = defender;
-        attackingPhase = true;
-    }
-    
-    private void dealCards() {
-        for (Player player : activePlayers) {
-            while (player.getHandSize() < INITIAL_CARDS && !deck.isEmpty()) {
-                Card card = deck.drawCard();
-                if (card != null) {
-                    player.addCard(card);
-                }
-            }
-            player.sortHand(deck.getTrumpSuit());
-        }
-    }
-    
-    public boolean playCard(Player player, Card card) {
-        if (!isValidPlayerTurn(player) || !player.containsCard(card) || 
-            !player.canPlayCard(card, deck.getTrumpSuit()) || 
-            !canPlayThisCard(player, card)) {
-            return false;
-        }
-        
-        player.removeCard(card);
-        cardsOnTable.add(card);
-        notifyCardPlayed(player, card);
-        return true;
-    }
-    
-    private boolean isValidPlayerTurn(Player player) {
-        return attackingPhase ? player == attacker : player == defender;
-    }
-    
-    private boolean canPlayThisCard(Player player, Card card) {
-        if (attackingPhase) {
-            return cardsOnTable.isEmpty() || 
-                   cardsOnTable.stream().anyMatch(c -> c.getRank() == card.getRank());
-        } else {
-            return cardsOnTable.size() == 1 && 
-                   card.beats(cardsOnTable.get(0), deck.getTrumpSuit());
-        }
-    }
-    
-    public boolean defendCard(Player player, Card defendCard) {
-        if (!isValidPlayerTurn(player) || defendingCard == null || 
-            !player.containsCard(defendCard) || 
-            !player.canDefend(cardsOnTable.get(0), defendCard, deck.getTrumpSuit())) {
-            return false;
-        }
-        
-        player.removeCard(defendCard);
-        cardsOnTable.add(defendCard);
-        notifyCardPlayed(player, defendCard);
-        
-        // Check if defense is complete
-        if (cardsOnTable.size() == 2) {
-            cardsOnTable.clear();
-        }
-        
-        return true;
-    }
-    
-    private void checkForGameOver() {
-        for (Player player : players) {
-            if (!player.hasCards()) {
-                gameOver = true;
-                notifyGameEnded(player);
-                return;
-            }
-        }
-        
-        // If deck is empty and players cannot continue
-        if (deck.isEmpty() && !canContinueGame()) {
-            gameOver = true;
-            Player winner = determineWinner();
-            notifyGameEnded(winner);
-        }
-    }
-    
-    private boolean canContinueGame() {
-        for (Player player : activePlayers) {
-            if (player.getHandSize() > 0) {
-                return true;
-            }
-        }
-        return false;
-    }
-    
-    private Player determineWinner() {
-        Player winner = null;
-        int minCards = Integer.MAX_VALUE;
-        
-        for (Player player : players) {
-            int cardCount = player.getHandSize();
-            if (cardCount < minCards) {
-                minCards = cardCount;
-                winner = player;
-            }
-        }
-        
-        return winner;
-    }
-    
-    public void surrender(Player player) {
-        gameOver = true;
-        Player winner = getNextPlayer(player);
-        notifyGameEnded(winner);
-    }
-    
-    public Player getCurrentPlayer() {
-        return players.get(currentPlayerIndex);
-    }
-    
-    public boolean isAttackingPhase() {
-        return attackingPhase;
-    }
-    
-    public Player getAttacker() {
-        return attacker;
-    }
-    
-    public Player getDefender() {
-        return defender;
-    }
-    
-    public List<Card> getCardsOnTable() {
-        return new ArrayList<>(cardsOnTable);
-    }
-    
-    public Deck getDeck() {
-        return deck;
-    }
-    
-    public boolean isGameOver() {
-        return gameOver;
-    }
-    
-    public boolean isFirstTurn() {
-        return firstTurn;
-    }
-    
-    public List<Player> getPlayers() {
-        return new ArrayList<>(players);
-    }
-    
-    public Player getNextPlayer(Player currentPlayer) {
-        int currentIndex = players.indexOf(currentPlayer);
-        int nextIndex = (currentIndex + 1) % players.size();
-        return players.get(nextIndex);
-    }
-    
-    public void addGameStateListener(GameStateListener listener) {
-        listeners.add(listener);
-    }
-    
-    public void removeGameStateListener(GameStateListener listener) {
-        listeners.remove(listener);
-    }
-    
-    private void notifyGameStarted() {
-        listeners.forEach(GameStateListener::onGameStarted);
-    }
-    
-    private void notifyStateChanged() {
-        listeners.forEach(listener -> listener.onGameStateChanged(this));
-    }
-    
-    private void notifyCardPlayed(Player player, Card card) {
-        listeners.forEach(listener -> listener.onCardPlayed(player, card));
-    }
-    
-    private void notifyGameEnded(Player winner) {
-        listeners.forEach(listener -> listener.onGameEnded(winner));
-    }
-    
-    public interface GameStateListener {
-        void onGameStarted();
-        void onGameStateChanged(Game game);
-        void onCardPlayed(Player player, Card card);
-        void onGameEnded(Player winner);
-    }
-
-    /**
-     * Handles a human player's turn in the console
-     */
-    public void handleHumanTurn(Player humanPlayer, Scanner scanner) {
-        List<Card> hand = humanPlayer.getHand();
-        boolean isDefending = !isAttackingPhase();
-        
-        System.out.println("\n=== Your Turn ===");
-        System.out.println("Your hand:");
-        for (int i = 0; i < hand.size(); i++) {
-            System.out.println((i + 1) + ". " + hand.get(i));
-        }
-        
-        if (isDefending) {
-            Card attackCard = cardsOnTable.get(0);
-            System.out.println("\nDefend against: " + attackCard);
-            List<Card> beatable = humanPlayer.getBeatableCards(attackCard, deck.getTrumpSuit());
-            
-            if (beatable.isEmpty()) {
-                System.out.println("No cards to defend. You have to take.");
-                return;
-            }
-            
-            System.out.println("Choose a card to defend with (0 to surrender):");
-            for (int i = 0; i < beatable.size(); i++) {
-                System.out.println((i + 1) + ". " + beatable.get(i));
-            }
-            
-            int choice = getValidChoice(scanner, beatable.size());
-            if (choice == 0) {
-                surrender(humanPlayer);
-                return;
-            }
-            
-            defendCard(humanPlayer, beatable.get(choice - 1));
-        } else {
-            List<Card> playable = humanPlayer.getPlayableCards(cardsOnTable);
-            System.out.println("Choose a card to play (0 to surrender):");
-            
-            for (int i = 0; i < playable.size(); i++) {
-                System.out.println((i + 1) + ". " + playable.get(i));
-            }
-            
-            int choice = getValidChoice(scanner, playable.size());
-            if (choice == 0) {
-                surrender(humanPlayer);
-                return;
-            }
-            
-            playCard(humanPlayer, playable.get(choice - 1));
-        }
-    }
-
-    /**
-     * Gets a valid user choice
-     */
-    private int getValidChoice(Scanner scanner, int max) {
-        while (true) {
-            try {
-                int choice = Integer.parseInt(scanner.nextLine());
-                if (choice >= 0 && choice <= max) {
-                    return choice;
-                }
-                System.out.println("Please enter a number between 0 and " + max + ":");
-            } catch (NumberFormatException e) {
-                System.out.println("Invalid input. Please enter a number:");
-            }
-        }
-    }
-}
+package game;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import game.Card.Suit;
+import game.Card.Rank;
+import game.Player;
+import game.Deck;
+
+public class Game {
+    public static final int INITIAL_CARDS = 6;
+    private final Deck deck;
+    private final List<Player> players = new ArrayList<>();
+    private final CardSet cardsOnTable = new CardSet();
+    private Card attackCard;
+    private int currentPlayerIndex = 0;
+    private boolean gameOver = false;
+    private boolean attackingPhase = true;
+    private Player attacker;
+    private Player defender;
+    private final List<Player> activePlayers = new ArrayList<>();
+    private final CardSet discardPile = new CardSet();
+    private final List<GameStateListener> listeners = new ArrayList<>();
+    private boolean firstTurn = true;
+    private Player winner;
+    // Zobrist key of the current position, updated on every card move
+    private long key;
+    
+    public Game(Player player1, Player player2) {
+        this(player1, player2, new Deck());
+    }
+    
+    public Game(Player player1, Player player2, Deck deck) {
+        this.deck = deck;
+        players.add(player1);
+        players.add(player2);
+        activePlayers.addAll(players);
+    }
+    
+    public void startGame() {
+        initializeHands();
+        determineFirstAttacker();
+        key = computeKey();
+        notifyGameStarted();
+    }
+    
+    private void initializeHands() {
+        for (Player player : players) {
+            List<Card> initialCards = new ArrayList<>();
+            for (int i = 0; i < INITIAL_CARDS; i++) {
+                Card card = deck.drawCard();
+                if (card != null) {
+                    initialCards.add(card);
+                }
+            }
+            player.addCards(initialCards);
+        }
+        
+        // Sort hands by trump suit
+        for (Player player : players) {
+            player.sortHand(deck.getTrumpSuit());
+        }
+    }
+    
+    private void determineFirstAttacker() {
+        // Determine the player with the lowest trump card
+        Player minTrumpPlayer = null;
+        Card minTrumpCard = null;
+        
+        for (Player player : players) {
+            for (Card card : player.getHand()) {
+                if (card.isTrump(deck.getTrumpSuit())) {
+                    if (minTrumpCard == null || 
+                        card.getRank().getValue() < minTrumpCard.getRank().getValue()) {
+                        minTrumpCard = card;
+                        minTrumpPlayer = player;
+                    }
+                }
+            }
+        }
+        
+        if (minTrumpPlayer != null) {
+            currentPlayerIndex = players.indexOf(minTrumpPlayer);
+        } else {
+            // If no trumps, choose randomly
+            currentPlayerIndex = deck.getRandom().nextInt(players.size());
+        }
+        
+        attacker = players.get(currentPlayerIndex);
+        defender = getNextPlayer(attacker);
+    }
+    
+    public void nextTurn() {
+        if (gameOver) return;
+        
+        if (attackingPhase) {
+            // End of attack phase
+            if (cardsOnTable.isEmpty()) {
+                // If no one played, move to next player
+                endAttackPhase();
+            } else {
+                // Switch to defense
+                attackingPhase = false;
+                key ^= Zobrist.phase(false);
+                defender = getNextPlayer(attacker);
+            }
+        } else {
+            // After defense
+            if (cardsOnTable.isEmpty()) {
+                // All cards are covered, move to next player
+                endAttackPhase();
+            } else {
+                // If there are uncovered cards, defender takes them
+                handleFailedDefense();
+            }
+        }
+        
+        checkForGameOver();
+        notifyStateChanged();
+    }
+    
+    private void endAttackPhase() {
+        // Pass the turn
+        setAttacker(defender);
+        defender = getNextPlayer(attacker);
+        key ^= Zobrist.phase(attackingPhase);
+        attackingPhase = true;
+        clearTable();
+        firstTurn = false;
+        
+        // Deal cards
+        dealCards();
+    }
+    
+    private void handleFailedDefense() {
+        // Defender takes the cards
+        defender.addCards(cardsOnTable);
+        key ^= Zobrist.cards(seatOf(defender), cardsOnTable.bits());
+        notifyCardsTaken(defender, cardsOnTable.bits());
+        clearTable();
+        
+        // Deal cards
+        dealCards();
+        
+        // The attacker keeps the initiative against the player who took
+        setAttacker(getNextPlayer(defender));
+        attackingPhase = true;
+        key ^= Zobrist.phase(false);
+    }
+    
+    private void setAttacker(Player player) {
+        key ^= Zobrist.attacker(seatOf(attacker)) ^ Zobrist.attacker(seatOf(player));
+        attacker = player;
+    }
+    
+    private void dealCards() {
+        for (Player player : activePlayers) {
+            while (player.getHandSize() < INITIAL_CARDS && !deck.isEmpty()) {
+                Card card = deck.drawCard();
+                if (card != null) {
+                    player.addCard(card);
+                    key ^= Zobrist.card(Zobrist.DECK, card.getIndex())
+                            ^ Zobrist.card(seatOf(player), card.getIndex());
+                }
+            }
+            player.sortHand(deck.getTrumpSuit());
+        }
+    }
+    
+    public boolean playCard(Player player, Card card) {
+        if (!isValidPlayerTurn(player) || !player.containsCard(card) || 
+            !player.canPlayCard(card, deck.getTrumpSuit()) || 
+            !canPlayThisCard(player, card)) {
+            return false;
+        }
+        
+        player.removeCard(card);
+        key ^= Zobrist.card(seatOf(player), card.getIndex());
+        putOnTable(card);
+        notifyCardPlayed(player, card);
+        return true;
+    }
+    
+    private boolean isValidPlayerTurn(Player player) {
+        return attackingPhase ? player == attacker : player == defender;
+    }
+    
+    private boolean canPlayThisCard(Player player, Card card) {
+        if (attackingPhase) {
+            return (MoveGenerator.attackMask(player.getHandMask(), cardsOnTable.bits())
+                    & CardSet.bit(card)) != 0;
+        }
+        return canDefendWith(player, card);
+    }
+    
+    private boolean canDefendWith(Player player, Card card) {
+        return attackCard != null && cardsOnTable.size() == 1 &&
+               (MoveGenerator.defenseMask(player.getHandMask(), deck.getTrumpSuit().ordinal(),
+                       attackCard.getIndex()) & CardSet.bit(card)) != 0;
+    }
+    
+    private void putOnTable(Card card) {
+        if (cardsOnTable.isEmpty()) {
+            attackCard = card;
+        }
+        cardsOnTable.add(card);
+        key ^= Zobrist.card(Zobrist.TABLE, card.getIndex());
+    }
+    
+    private void clearTable() {
+        key ^= Zobrist.cards(Zobrist.TABLE, cardsOnTable.bits());
+        cardsOnTable.clear();
+        attackCard = null;
+    }
+    
+    public boolean defendCard(Player player, Card defendCard) {
+        if (!isValidPlayerTurn(player) || defendCard == null || 
+            !canDefendWith(player, defendCard)) {
+            return false;
+        }
+        
+        player.removeCard(defendCard);
+        key ^= Zobrist.card(seatOf(player), defendCard.getIndex());
+        putOnTable(defendCard);
+        notifyCardPlayed(player, defendCard);
+        
+        // Check if defense is complete: the covered pair goes to the discard pile
+        if (cardsOnTable.size() == 2) {
+            long covered = cardsOnTable.bits();
+            discardPile.addAll(covered);
+            clearTable();
+            notifyCardsDiscarded(covered);
+        }
+        
+        return true;
+    }
+    
+    private void checkForGameOver() {
+        for (Player player : players) {
+            if (!player.hasCards()) {
+                gameOver = true;
+                winner = player;
+                notifyGameEnded(player);
+                return;
+            }
+        }
+        
+        // If deck is empty and players cannot continue
+        if (deck.isEmpty() && !canContinueGame()) {
+            gameOver = true;
+            winner = determineWinner();
+            notifyGameEnded(winner);
+        }
+    }
+    
+    private boolean canContinueGame() {
+        for (Player player : activePlayers) {
+            if (player.getHandSize() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private Player determineWinner() {
+        Player winner = null;
+        int minCards = Integer.MAX_VALUE;
+        
+        for (Player player : players) {
+            int cardCount = player.getHandSize();
+            if (cardCount < minCards) {
+                minCards = cardCount;
+                winner = player;
+            }
+        }
+        
+        return winner;
+    }
+    
+    public void surrender(Player player) {
+        gameOver = true;
+        winner = getNextPlayer(player);
+        notifyGameEnded(winner);
+    }
+    
+    public Player getCurrentPlayer() {
+        return attackingPhase ? attacker : defender;
+    }
+    
+    public boolean isAttackingPhase() {
+        return attackingPhase;
+    }
+    
+    public Player getAttacker() {
+        return attacker;
+    }
+    
+    public Player getDefender() {
+        return defender;
+    }
+    
+    public List<Card> getCardsOnTable() {
+        // The attack card always comes first
+        List<Card> table = new ArrayList<>(cardsOnTable.size());
+        if (attackCard != null) {
+            table.add(attackCard);
+            CardSet.addTo(cardsOnTable.bits() & ~CardSet.bit(attackCard), table);
+        }
+        return table;
+    }
+    
+    public long getTableMask() {
+        return cardsOnTable.bits();
+    }
+    
+    public Card getAttackCard() {
+        return attackCard;
+    }
+    
+    /**
+     * Cards that have left the game (beaten pairs).
+     */
+    public long getDiscardMask() {
+        return discardPile.bits();
+    }
+    
+    public Deck getDeck() {
+        return deck;
+    }
+    
+    public boolean isGameOver() {
+        return gameOver;
+    }
+    
+    public Player getWinner() {
+        return winner;
+    }
+    
+    public boolean isFirstTurn() {
+        return firstTurn;
+    }
+    
+    public List<Player> getPlayers() {
+        return new ArrayList<>(players);
+    }
+    
+    private int seatOf(Player player) {
+        return player == players.get(0) ? 0 : 1;
+    }
+    
+    /**
+     * Zobrist key of the current position, see {@link Zobrist}.
+     */
+    public long getKey() {
+        return key;
+    }
+    
+    private long computeKey() {
+        return Zobrist.key(players.get(0).getHandMask(), players.get(1).getHandMask(), cardsOnTable.bits(),
+                deck.getCardMask(), deck.getTrumpSuit().ordinal(), seatOf(attacker), attackingPhase);
+    }
+    
+    public Player getNextPlayer(Player currentPlayer) {
+        int currentIndex = players.indexOf(currentPlayer);
+        int nextIndex = (currentIndex + 1) % players.size();
+        return players.get(nextIndex);
+    }
+    
+    /**
+     * Captures the current position as an immutable snapshot.
+     */
+    public GameState getState() {
+        int winnerSeat = gameOver && winner != null ? players.indexOf(winner) : GameState.NO_WINNER;
+        return new GameState(players.get(0).getHandMask(), players.get(1).getHandMask(),
+                cardsOnTable.bits(), deck.getCardMask(), deck.copyOrder(), deck.getCursor(),
+                attackCard == null ? GameState.NO_CARD : attackCard.getIndex(),
+                deck.getTrumpSuit().ordinal(), players.indexOf(attacker), attackingPhase, winnerSeat, key);
+    }
+    
+    /**
+     * Puts the game into a previously captured position. Listeners are not notified.
+     */
+    public void restore(GameState state) {
+        players.get(0).setHandMask(state.getHand(0));
+        players.get(1).setHandMask(state.getHand(1));
+        deck.restore(state.deckOrder(), state.getCursor(), state.getTrumpSuit());
+        cardsOnTable.setBits(state.getTable());
+        discardPile.setBits(state.getDiscardMask());
+        attackCard = state.getAttackCard() == GameState.NO_CARD ? null : Card.byIndex(state.getAttackCard());
+        attacker = players.get(state.getAttacker());
+        defender = players.get(state.getDefender());
+        attackingPhase = state.isAttackingPhase();
+        gameOver = state.isGameOver();
+        winner = gameOver ? players.get(state.getWinner()) : null;
+        key = state.getKey();
+    }
+    
+    public void addGameStateListener(GameStateListener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeGameStateListener(GameStateListener listener) {
+        listeners.remove(listener);
+    }
+    
+    private void notifyGameStarted() {
+        listeners.forEach(GameStateListener::onGameStarted);
+    }
+    
+    private void notifyStateChanged() {
+        listeners.forEach(listener -> listener.onGameStateChanged(this));
+    }
+    
+    private void notifyCardPlayed(Player player, Card card) {
+        listeners.forEach(listener -> listener.onCardPlayed(player, card));
+    }
+    
+    private void notifyCardsTaken(Player player, long cards) {
+        listeners.forEach(listener -> listener.onCardsTaken(player, cards));
+    }
+    
+    private void notifyCardsDiscarded(long cards) {
+        listeners.forEach(listener -> listener.onCardsDiscarded(cards));
+    }
+    
+    private void notifyGameEnded(Player winner) {
+        listeners.forEach(listener -> listener.onGameEnded(winner));
+    }
+    
+    public interface GameStateListener {
+        void onGameStarted();
+        void onGameStateChanged(Game game);
+        void onCardPlayed(Player player, Card card);
+        void onGameEnded(Player winner);
+        
+        /**
+         * The defender picked up the cards on the table (a {@link CardSet} mask).
+         */
+        default void onCardsTaken(Player player, long cards) {
+        }
+        
+        /**
+         * A beaten pair left the table for the discard pile (a {@link CardSet} mask).
+         */
+        default void onCardsDiscarded(long cards) {
+        }
+    }
+
+    /**
+     * Handles a human player's turn in the console
+     */
+    public void handleHumanTurn(Player humanPlayer, Scanner scanner) {
+        List<Card> hand = humanPlayer.getHand();
+        boolean isDefending = !isAttackingPhase();
+        
+        System.out.println("\n=== Your Turn ===");
+        System.out.println("Your hand:");
+        for (int i = 0; i < hand.size(); i++) {
+            System.out.println((i + 1) + ". " + hand.get(i));
+        }
+        
+        if (isDefending) {
+            System.out.println("\nDefend against: " + attackCard);
+            List<Card> beatable = humanPlayer.getBeatableCards(attackCard, deck.getTrumpSuit());
+            
+            if (beatable.isEmpty()) {
+                System.out.println("No cards to defend. You have to take.");
+                return;
+            }
+            
+            System.out.println("Choose a card to defend with (0 to surrender):");
+            for (int i = 0; i < beatable.size(); i++) {
+                System.out.println((i + 1) + ". " + beatable.get(i));
+            }
+            
+            int choice = getValidChoice(scanner, beatable.size());
+            if (choice == 0) {
+                surrender(humanPlayer);
+                return;
+            }
+            
+            defendCard(humanPlayer, beatable.get(choice - 1));
+        } else {
+            List<Card> playable = humanPlayer.getPlayableCards(getCardsOnTable());
+            System.out.println("Choose a card to play (0 to surrender):");
+            
+            for (int i = 0; i < playable.size(); i++) {
+                System.out.println((i + 1) + ". " + playable.get(i));
+            }
+            
+            int choice = getValidChoice(scanner, playable.size());
+            if (choice == 0) {
+                surrender(humanPlayer);
+                return;
+            }
+            
+            playCard(humanPlayer, playable.get(choice - 1));
+        }
+    }
+
+    /**
+     * Gets a valid user choice
+     */
+    private int getValidChoice(Scanner scanner, int max) {
+        while (true) {
+            try {
+                int choice = Integer.parseInt(scanner.nextLine());
+                if (choice >= 0 && choice <= max) {
+                    return choice;
+                }
+                System.out.println("Please enter a number between 0 and " + max + ":");
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid input. Please enter a number:");
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package game;
+
+/**
+ * Immutable snapshot of a two-player game in a handful of primitive fields.
+ * Hands, table and the undrawn deck are {@link CardSet} masks indexed by seat
+ * (the order players were passed to {@link Game}); the deck order is a shared
+ * read-only array of card indices plus a draw cursor, so a snapshot can be
+ * copied or passed between threads for free.
+ */
+public final class GameState {
+    public static final int NO_CARD = -1;
+    public static final int NO_WINNER = -1;
+
+    private final long hand0;
+    private final long hand1;
+    private final long table;
+    private final long deckMask;
+    // Shared between snapshots, never written after creation
+    private final byte[] deckOrder;
+    private final int cursor;
+    private final int attackCard;
+    private final int trump;
+    private final int attacker;
+    private final boolean attackingPhase;
+    private final int winner;
+    private final long key;
+
+    GameState(long hand0, long hand1, long table, long deckMask, byte[] deckOrder, int cursor,
+              int attackCard, int trump, int attacker, boolean attackingPhase, int winner, long key) {
+        this.hand0 = hand0;
+        this.hand1 = hand1;
+        this.table = table;
+        this.deckMask = deckMask;
+        this.deckOrder = deckOrder;
+        this.cursor = cursor;
+        this.attackCard = attackCard;
+        this.trump = trump;
+        this.attacker = attacker;
+        this.attackingPhase = attackingPhase;
+        this.winner = winner;
+        this.key = key;
+    }
+
+    /**
+     * Builds a state from explicit parts, e.g. a determinization of hidden cards.
+     * @param deckOrder card indices in draw order; the array is kept, not copied
+     */
+    public static GameState of(long hand0, long hand1, long table, int attackCard,
+                               byte[] deckOrder, int cursor, int trump,
+                               int attacker, boolean attackingPhase, int winner) {
+        long deckMask = 0;
+        for (int i = cursor; i < deckOrder.length; i++) {
+            deckMask |= 1L << deckOrder[i];
+        }
+        return new GameState(hand0, hand1, table, deckMask, deckOrder, cursor,
+                attackCard, trump, attacker, attackingPhase, winner,
+                Zobrist.key(hand0, hand1, table, deckMask, trump, attacker, attackingPhase));
+    }
+
+    public long getHand(int seat) {
+        return seat == 0 ? hand0 : hand1;
+    }
+
+    public int getHandSize(int seat) {
+        return Long.bitCount(getHand(seat));
+    }
+
+    public long getTable() {
+        return table;
+    }
+
+    public int getAttackCard() {
+        return attackCard;
+    }
+
+    /**
+     * Undrawn cards as a mask.
+     */
+    public long getDeckMask() {
+        return deckMask;
+    }
+
+    public int getDeckSize() {
+        return deckOrder.length - cursor;
+    }
+
+    /**
+     * Card index at a position of the draw order; positions before the cursor are already drawn.
+     */
+    public int getDeckCard(int position) {
+        return deckOrder[position];
+    }
+
+    public int getCursor() {
+        return cursor;
+    }
+
+    byte[] deckOrder() {
+        return deckOrder;
+    }
+
+    /**
+     * Cards that left the game: neither in a hand, on the table nor in the deck.
+     */
+    public long getDiscardMask() {
+        return CardSet.ALL & ~(hand0 | hand1 | table | deckMask);
+    }
+
+    public int getTrump() {
+        return trump;
+    }
+
+    public Card.Suit getTrumpSuit() {
+        return Card.Suit.values()[trump];
+    }
+
+    public int getAttacker() {
+        return attacker;
+    }
+
+    public int getDefender() {
+        return 1 - attacker;
+    }
+
+    public boolean isAttackingPhase() {
+        return attackingPhase;
+    }
+
+    /**
+     * Seat whose move it is.
+     */
+    public int getSideToMove() {
+        return attackingPhase ? attacker : 1 - attacker;
+    }
+
+    public boolean isGameOver() {
+        return winner != NO_WINNER;
+    }
+
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * Zobrist key of the position, see {@link Zobrist}.
+     */
+    public long getKey() {
+        return key;
+    }
+
+    @Override
+    public String toString() {
+        return "GameState{hands=" + new CardSet(hand0) + "/" + new CardSet(hand1)
+                + ", table=" + new CardSet(table)
+                + ", deck=" + getDeckSize()
+                + ", trump=" + getTrumpSuit().getSymbol()
+                + ", attacker=" + attacker
+                + ", phase=" + (attackingPhase ? "attack" : "defense")
+                + (isGameOver() ? ", winner=" + winner : "") + "}";
+    }
+}
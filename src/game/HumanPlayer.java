@@ -0,0 +1,24 @@
+package game;
+
+import java.util.List;
+
+/**
+ * Human player. Moves are read from the console in
+ * {@link Game#handleHumanTurn}, so the AI callbacks never choose a card.
+ */
+public class HumanPlayer extends Player {
+
+    public HumanPlayer(String name) {
+        super(name, true);
+    }
+
+    @Override
+    public Card playCard(Game game, List<Card> cardsOnTable) {
+        return null;
+    }
+
+    @Override
+    public Card defendCard(Game game, Card attackCard) {
+        return null;
+    }
+}
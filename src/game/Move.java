@@ -0,0 +1,52 @@
+package game;
+
+/**
+ * Moves packed into an int: the card index in the low 6 bits, the move type above it.
+ * TAKE and PASS carry no card.
+ */
+public final class Move {
+    public static final int ATTACK = 0;
+    public static final int DEFEND = 1;
+    public static final int TAKE_TYPE = 2;
+    public static final int PASS_TYPE = 3;
+
+    private static final int CARD_BITS = 6;
+    private static final int CARD_MASK = (1 << CARD_BITS) - 1;
+
+    /** Defender picks up the cards on the table. */
+    public static final int TAKE = TAKE_TYPE << CARD_BITS;
+    /** Attacker plays nothing (bito when the table is covered). */
+    public static final int PASS = PASS_TYPE << CARD_BITS;
+
+    private Move() {
+    }
+
+    public static int attack(int card) {
+        return ATTACK << CARD_BITS | card;
+    }
+
+    public static int defend(int card) {
+        return DEFEND << CARD_BITS | card;
+    }
+
+    public static int type(int move) {
+        return move >>> CARD_BITS;
+    }
+
+    public static int card(int move) {
+        return move & CARD_MASK;
+    }
+
+    public static boolean hasCard(int move) {
+        return type(move) <= DEFEND;
+    }
+
+    public static String toString(int move) {
+        switch (type(move)) {
+            case ATTACK: return "attack " + Card.byIndex(card(move));
+            case DEFEND: return "defend " + Card.byIndex(card(move));
+            case TAKE_TYPE: return "take";
+            default: return "pass";
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package game;
+
+/**
+ * Single source of move legality. Fills a caller-supplied buffer with
+ * {@link Move} codes and returns how many were written; nothing is allocated.
+ */
+public final class MoveGenerator {
+    /** Every card of a hand plus TAKE or PASS. */
+    public static final int MAX_MOVES = CardSet.CARD_COUNT + 1;
+
+    private MoveGenerator() {
+    }
+
+    public static int generate(GameState state, int[] moves) {
+        if (state.isGameOver()) {
+            return 0;
+        }
+        int seat = state.getSideToMove();
+        return generate(state.getHand(seat), state.getTable(), state.getAttackCard(),
+                state.getTrump(), state.isAttackingPhase(), moves);
+    }
+
+    /**
+     * Moves for the side to move, given its hand and the table.
+     * An attacker must lead on an empty table while holding cards; once cards
+     * are on the table it may also stop throwing in (PASS). A defender may beat
+     * the attack card with any beater or take.
+     */
+    public static int generate(long hand, long table, int attackCard, int trump,
+                               boolean attackingPhase, int[] moves) {
+        int count = 0;
+        if (attackingPhase) {
+            long playable = attackMask(hand, table);
+            for (long m = playable; m != 0; m &= m - 1) {
+                moves[count++] = Move.attack(Long.numberOfTrailingZeros(m));
+            }
+            if (table != 0 || playable == 0) {
+                moves[count++] = Move.PASS;
+            }
+        } else {
+            if (attackCard != GameState.NO_CARD) {
+                for (long m = defenseMask(hand, trump, attackCard); m != 0; m &= m - 1) {
+                    moves[count++] = Move.defend(Long.numberOfTrailingZeros(m));
+                }
+            }
+            moves[count++] = Move.TAKE;
+        }
+        return count;
+    }
+
+    /**
+     * Cards the attacker may put on the table.
+     */
+    public static long attackMask(long hand, long table) {
+        return Rules.playable(hand, table);
+    }
+
+    /**
+     * Cards the defender may cover the attack card with.
+     */
+    public static long defenseMask(long hand, int trump, int attackCard) {
+        return hand & Rules.beatMask(trump, attackCard);
+    }
+
+    public static boolean isLegal(GameState state, int move) {
+        if (state.isGameOver()) {
+            return false;
+        }
+        long hand = state.getHand(state.getSideToMove());
+        switch (Move.type(move)) {
+            case Move.ATTACK:
+                return state.isAttackingPhase()
+                        && (attackMask(hand, state.getTable()) & 1L << Move.card(move)) != 0;
+            case Move.DEFEND:
+                return !state.isAttackingPhase() && state.getAttackCard() != GameState.NO_CARD
+                        && (defenseMask(hand, state.getTrump(), state.getAttackCard()) & 1L << Move.card(move)) != 0;
+            case Move.TAKE_TYPE:
+                return !state.isAttackingPhase();
+            default:
+                return state.isAttackingPhase()
+                        && (state.getTable() != 0 || attackMask(hand, state.getTable()) == 0);
+        }
+    }
+}
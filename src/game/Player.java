@@ -1,152 +1,133 @@
-package game;
-
-import java.util.*;
-import game.Card.Suit;
-import game.Card.Rank;
-
-public abstract class Player {
-    private final String name;
-    protected final List<Card> hand = new ArrayList<>();
-    protected final boolean isHuman;
-    
-    public Player(String name, boolean isHuman) {
-        this.name = name;
-        this.isHuman = isHuman;
-    }
-    
-    public String getName() {
-        return name;
-    }
-    
-    public List<Card> getHand() {
-        return new ArrayList<>(hand);
-    }
-    
-    public int getHandSize() {
-        return hand.size();
-    }
-    
-    public boolean isHuman() {
-        return isHuman;
-    }
-    
-    public void addCard(Card card) {
-        if (card != null) {
-            hand.add(card);
-        }
-    }
-    
-    public void addCards(List<Card> cards) {
-        for (Card card : cards) {
-            if (card != null) {
-                hand.add(card);
-            }
-        }
-    }
-    
-    public void removeCard(Card card) {
-        hand.remove(card);
-    }
-    
-    public void sortHand(Suit trumpSuit) {
-        hand.sort((c1, c2) -> {
-            // Сначала по козырности
-            boolean c1Trump = c1.isTrump(trumpSuit);
-            boolean c2Trump = c2.isTrump(trumpSuit);
-            
-            if (c1Trump && !c2Trump) return -1;
-            if (!c1Trump && c2Trump) return 1;
-            
-            // Затем по масти
-            int suitComparison = c1.getSuit().compareTo(c2.getSuit());
-            if (suitComparison != 0) {
-                return suitComparison;
-            }
-            
-            // Затем по значению
-            return c1.getRank().compareTo(c2.getRank());
-        });
-    }
-    
-    public abstract Card playCard(Game game, List<Card> cardsOnTable);
-    
-    public abstract Card defendCard(Game game, Card attackCard);
-    
-    public boolean hasCards() {
-        return !hand.isEmpty();
-    }
-    
-    public void clearHand() {
-        hand.clear();
-    }
-    
-    public boolean containsCard(Card card) {
-        return hand.contains(card);
-    }
-    
-    public void showAllCards() {
-        for (Card card : hand) {
-            card.setFaceUp(true);
-        }
-    }
-    
-    public boolean canPlayCard(Card card, Suit trumpSuit) {
-        return hand.contains(card);
-    }
-    
-    public boolean canDefend(Card attackCard, Card defendCard, Suit trumpSuit) {
-        if (defendCard == null) return false;
-        return defendCard.beats(attackCard, trumpSuit);
-    }
-    
-    public boolean hasBeatableCard(Card attackCard, Suit trumpSuit) {
-        for (Card card : hand) {
-            if (card.beats(attackCard, trumpSuit)) {
-                return true;
-            }
-        }
-        return false;
-    }
-    
-    public boolean canAttackWithCard(Card card, List<Card> cardsOnTable) {
-        if (cardsOnTable.isEmpty()) {
-            return true;
-        }
-        
-        for (Card tableCard : cardsOnTable) {
-            if (tableCard.getRank() == card.getRank()) {
-                return true;
-            }
-        }
-        return false;
-    }
-    
-    public List<Card> getPlayableCards(List<Card> cardsOnTable) {
-        List<Card> playable = new ArrayList<>();
-        
-        if (cardsOnTable.isEmpty()) {
-            playable.addAll(hand);
-        } else {
-            for (Card card : hand) {
-                for (Card tableCard : cardsOnTable) {
-                    if (card.getRank() == tableCard.getRank()) {
-                        playable.add(card);
-                        break;
-                    }
-                }
-            }
-        }
-        
-        return playable;
-    }
-    
-    public List<Card> getBeatableCards(Card attackCard, Suit trumpSuit) {
-        List<Card> beatable = new ArrayList<>();
-        for (Card card : hand) {
-            if (card.beats(attackCard, trumpSuit)) {
-                beatable.add(card);
-            }
-        }
-        return beatable;
-    }
-}
\ No newline at end of file
+package game;
+
+import java.util.*;
+import game.Card.Suit;
+import game.Card.Rank;
+
+public abstract class Player {
+    private final String name;
+    protected final CardSet hand = new CardSet();
+    protected final boolean isHuman;
+    private Suit sortTrumpSuit;
+    private boolean handRevealed;
+    
+    public Player(String name, boolean isHuman) {
+        this.name = name;
+        this.isHuman = isHuman;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public List<Card> getHand() {
+        return toHandOrder(hand.bits());
+    }
+    
+    /**
+     * Превращает маску карт руки в список в порядке сортировки руки
+     */
+    protected List<Card> toHandOrder(long mask) {
+        List<Card> cards = new ArrayList<>(Long.bitCount(mask));
+        if (sortTrumpSuit != null) {
+            // Козыри первыми, затем остальные масти по порядку
+            long trumpMask = CardSet.suitMask(sortTrumpSuit);
+            CardSet.addTo(mask & trumpMask, cards);
+            mask &= ~trumpMask;
+        }
+        CardSet.addTo(mask, cards);
+        return cards;
+    }
+    
+    public long getHandMask() {
+        return hand.bits();
+    }
+    
+    void setHandMask(long mask) {
+        hand.setBits(mask);
+    }
+    
+    public int getHandSize() {
+        return hand.size();
+    }
+    
+    public boolean isHuman() {
+        return isHuman;
+    }
+    
+    public void addCard(Card card) {
+        if (card != null) {
+            hand.add(card);
+        }
+    }
+    
+    public void addCards(List<Card> cards) {
+        for (Card card : cards) {
+            if (card != null) {
+                hand.add(card);
+            }
+        }
+    }
+    
+    public void addCards(CardSet cards) {
+        hand.addAll(cards.bits());
+    }
+    
+    public void removeCard(Card card) {
+        hand.remove(card);
+    }
+    
+    public void sortHand(Suit trumpSuit) {
+        // Порядок хранится битами, поэтому запоминаем только козырную масть
+        this.sortTrumpSuit = trumpSuit;
+    }
+    
+    public abstract Card playCard(Game game, List<Card> cardsOnTable);
+    
+    public abstract Card defendCard(Game game, Card attackCard);
+    
+    public boolean hasCards() {
+        return !hand.isEmpty();
+    }
+    
+    public void clearHand() {
+        hand.clear();
+    }
+    
+    public boolean containsCard(Card card) {
+        return hand.contains(card);
+    }
+    
+    public void showAllCards() {
+        handRevealed = true;
+    }
+    
+    public boolean isHandRevealed() {
+        return handRevealed;
+    }
+    
+    public boolean canPlayCard(Card card, Suit trumpSuit) {
+        return hand.contains(card);
+    }
+    
+    public boolean canDefend(Card attackCard, Card defendCard, Suit trumpSuit) {
+        if (defendCard == null) return false;
+        return defendCard.beats(attackCard, trumpSuit);
+    }
+    
+    public boolean hasBeatableCard(Card attackCard, Suit trumpSuit) {
+        return Rules.beaters(hand.bits(), trumpSuit, attackCard) != 0;
+    }
+    
+    public boolean canAttackWithCard(Card card, List<Card> cardsOnTable) {
+        return (Rules.throwInMask(CardSet.maskOf(cardsOnTable)) & CardSet.bit(card)) != 0;
+    }
+    
+    public List<Card> getPlayableCards(List<Card> cardsOnTable) {
+        return toHandOrder(Rules.playable(hand.bits(), CardSet.maskOf(cardsOnTable)));
+    }
+    
+    public List<Card> getBeatableCards(Card attackCard, Suit trumpSuit) {
+        return toHandOrder(Rules.beaters(hand.bits(), trumpSuit, attackCard));
+    }
+}
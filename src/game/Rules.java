@@ -0,0 +1,81 @@
+package game;
+
+import game.Card.Suit;
+
+/**
+ * Precomputed legality tables over {@link CardSet} masks.
+ * "Which cards can defend" is {@code hand & beatMask(trump, attack)},
+ * "which cards can be thrown in" is {@code hand & throwInMask(table)}.
+ */
+public final class Rules {
+    private static final int SUIT_COUNT = Suit.values().length;
+    private static final long SUIT_BITS = 0x1FFL;
+    /** Bit r set for every rank r; each suit block repeats it. */
+    private static final long RANK_SPREAD = 1L | 1L << 9 | 1L << 18 | 1L << 27;
+
+    // [trump][attack card index] -> every card that beats the attack card
+    private static final long[][] BEAT_MASKS = new long[SUIT_COUNT][CardSet.CARD_COUNT];
+    // [rank] -> the four cards of that rank
+    private static final long[] RANK_MASKS = new long[CardSet.RANK_COUNT];
+
+    static {
+        for (int rank = 0; rank < CardSet.RANK_COUNT; rank++) {
+            RANK_MASKS[rank] = RANK_SPREAD << rank;
+        }
+        for (int trump = 0; trump < SUIT_COUNT; trump++) {
+            long trumpMask = SUIT_BITS << (trump * CardSet.RANK_COUNT);
+            for (int index = 0; index < CardSet.CARD_COUNT; index++) {
+                int suit = index / CardSet.RANK_COUNT;
+                int rank = index % CardSet.RANK_COUNT;
+                // Higher cards of the same suit
+                long higher = (SUIT_BITS & ~((2L << rank) - 1)) << (suit * CardSet.RANK_COUNT);
+                BEAT_MASKS[trump][index] = suit == trump ? higher : higher | trumpMask;
+            }
+        }
+    }
+
+    private Rules() {
+    }
+
+    public static long beatMask(Suit trumpSuit, Card attackCard) {
+        return BEAT_MASKS[trumpSuit.ordinal()][attackCard.getIndex()];
+    }
+
+    public static long beatMask(int trump, int attackIndex) {
+        return BEAT_MASKS[trump][attackIndex];
+    }
+
+    public static long rankMask(int rank) {
+        return RANK_MASKS[rank];
+    }
+
+    public static boolean beats(Card card, Card attackCard, Suit trumpSuit) {
+        return (beatMask(trumpSuit, attackCard) & CardSet.bit(card)) != 0;
+    }
+
+    /**
+     * All cards sharing a rank with any card of the table mask.
+     */
+    public static long rankMaskOf(long table) {
+        long ranks = (table | table >>> 9 | table >>> 18 | table >>> 27) & SUIT_BITS;
+        return ranks * RANK_SPREAD;
+    }
+
+    /**
+     * Cards that may be played in attack: anything on an empty table,
+     * otherwise cards matching a rank already on the table.
+     */
+    public static long throwInMask(long table) {
+        // All ones when the table is empty, zero otherwise
+        long emptyTable = ((table | -table) >>> 63) - 1;
+        return (rankMaskOf(table) | emptyTable) & CardSet.ALL;
+    }
+
+    public static long beaters(long hand, Suit trumpSuit, Card attackCard) {
+        return hand & beatMask(trumpSuit, attackCard);
+    }
+
+    public static long playable(long hand, long table) {
+        return hand & throwInMask(table);
+    }
+}
@@ -0,0 +1,297 @@
+package game;
+
+/**
+ * Mutable search-mode copy of a game with make/unmake.
+ * Follows the same turn rules as {@link Game} (a move is a player action
+ * followed by {@link Game#nextTurn()}) but keeps everything in primitive
+ * fields, never notifies listeners and reverts moves in place from a
+ * compact undo stack instead of copying the position per node.
+ * Moves are expected to come from {@link #generateMoves(int[])}.
+ */
+public final class SearchGame {
+    private static final int UNDO_WORDS = 5;
+
+    private final long[] hands = new long[2];
+    private long table;
+    private long deckMask;
+    private byte[] deckOrder;
+    private int cursor;
+    private int attackCard = GameState.NO_CARD;
+    private int trump;
+    private int attacker;
+    private boolean attackingPhase = true;
+    private int winner = GameState.NO_WINNER;
+    private long key;
+
+    // Per ply: both hands, table, the packed small fields and the key before the move
+    private long[] undo = new long[UNDO_WORDS * 64];
+    private int ply;
+
+    public SearchGame() {
+    }
+
+    public SearchGame(GameState state) {
+        load(state);
+    }
+
+    /**
+     * Resets this search game to a snapshot and clears the undo stack.
+     */
+    public void load(GameState state) {
+        hands[0] = state.getHand(0);
+        hands[1] = state.getHand(1);
+        table = state.getTable();
+        deckMask = state.getDeckMask();
+        deckOrder = state.deckOrder();
+        cursor = state.getCursor();
+        attackCard = state.getAttackCard();
+        trump = state.getTrump();
+        attacker = state.getAttacker();
+        attackingPhase = state.isAttackingPhase();
+        winner = state.getWinner();
+        key = state.getKey();
+        ply = 0;
+    }
+
+    /**
+     * Resets this search game to a position given by its parts, e.g. a
+     * determinization of hidden cards, without building a snapshot.
+     * @param deckOrder card indices in draw order; kept, not copied
+     */
+    public void load(long hand0, long hand1, long table, int attackCard,
+                     byte[] deckOrder, int cursor, int trump,
+                     int attacker, boolean attackingPhase) {
+        hands[0] = hand0;
+        hands[1] = hand1;
+        this.table = table;
+        this.attackCard = attackCard;
+        this.deckOrder = deckOrder;
+        this.cursor = cursor;
+        deckMask = 0;
+        for (int i = cursor; i < deckOrder.length; i++) {
+            deckMask |= 1L << deckOrder[i];
+        }
+        this.trump = trump;
+        this.attacker = attacker;
+        this.attackingPhase = attackingPhase;
+        winner = GameState.NO_WINNER;
+        key = Zobrist.key(hand0, hand1, table, deckMask, trump, attacker, attackingPhase);
+        ply = 0;
+    }
+
+    /**
+     * Copies the position of another search game; the undo stack starts empty.
+     */
+    public void copyFrom(SearchGame other) {
+        hands[0] = other.hands[0];
+        hands[1] = other.hands[1];
+        table = other.table;
+        deckMask = other.deckMask;
+        deckOrder = other.deckOrder;
+        cursor = other.cursor;
+        attackCard = other.attackCard;
+        trump = other.trump;
+        attacker = other.attacker;
+        attackingPhase = other.attackingPhase;
+        winner = other.winner;
+        key = other.key;
+        ply = 0;
+    }
+
+    public GameState toState() {
+        return new GameState(hands[0], hands[1], table, deckMask, deckOrder, cursor,
+                attackCard, trump, attacker, attackingPhase, winner, key);
+    }
+
+    public int generateMoves(int[] moves) {
+        if (winner != GameState.NO_WINNER) {
+            return 0;
+        }
+        return MoveGenerator.generate(hands[getSideToMove()], table, attackCard, trump,
+                attackingPhase, moves);
+    }
+
+    public void makeMove(int move) {
+        pushUndo();
+
+        int card = Move.card(move);
+        switch (Move.type(move)) {
+            case Move.ATTACK:
+                hands[attacker] &= ~(1L << card);
+                key ^= Zobrist.card(attacker, card);
+                putOnTable(card);
+                break;
+            case Move.DEFEND:
+                hands[1 - attacker] &= ~(1L << card);
+                key ^= Zobrist.card(1 - attacker, card);
+                putOnTable(card);
+                // Covered pair goes to the discard pile
+                if (Long.bitCount(table) == 2) {
+                    clearTable();
+                }
+                break;
+            default:
+                break;
+        }
+        nextTurn();
+    }
+
+    public void unmakeMove() {
+        int base = --ply * UNDO_WORDS;
+        hands[0] = undo[base];
+        hands[1] = undo[base + 1];
+        table = undo[base + 2];
+        long packed = undo[base + 3];
+        int oldCursor = (int) (packed & 0x3F);
+        // Cards drawn by the move go back into the deck
+        for (int i = oldCursor; i < cursor; i++) {
+            deckMask |= 1L << deckOrder[i];
+        }
+        cursor = oldCursor;
+        attackCard = (int) (packed >>> 6 & 0x7F) - 1;
+        attacker = (int) (packed >>> 13 & 1);
+        attackingPhase = (packed >>> 14 & 1) != 0;
+        winner = (int) (packed >>> 15 & 3) - 1;
+        key = undo[base + 4];
+    }
+
+    private void pushUndo() {
+        int base = ply * UNDO_WORDS;
+        if (base + UNDO_WORDS > undo.length) {
+            long[] grown = new long[undo.length * 2];
+            System.arraycopy(undo, 0, grown, 0, undo.length);
+            undo = grown;
+        }
+        undo[base] = hands[0];
+        undo[base + 1] = hands[1];
+        undo[base + 2] = table;
+        undo[base + 3] = cursor
+                | (long) (attackCard + 1) << 6
+                | (long) attacker << 13
+                | (attackingPhase ? 1L : 0L) << 14
+                | (long) (winner + 1) << 15;
+        undo[base + 4] = key;
+        ply++;
+    }
+
+    private void putOnTable(int card) {
+        if (table == 0) {
+            attackCard = card;
+        }
+        table |= 1L << card;
+        key ^= Zobrist.card(Zobrist.TABLE, card);
+    }
+
+    private void clearTable() {
+        key ^= Zobrist.cards(Zobrist.TABLE, table);
+        table = 0;
+        attackCard = GameState.NO_CARD;
+    }
+
+    private void nextTurn() {
+        if (attackingPhase) {
+            if (table == 0) {
+                endAttackPhase();
+            } else {
+                attackingPhase = false;
+                key ^= Zobrist.phase(false);
+            }
+        } else if (table == 0) {
+            endAttackPhase();
+        } else {
+            // Defender takes, the attacker keeps the initiative
+            hands[1 - attacker] |= table;
+            key ^= Zobrist.cards(1 - attacker, table);
+            clearTable();
+            dealCards();
+            attackingPhase = true;
+            key ^= Zobrist.phase(false);
+        }
+        checkForGameOver();
+    }
+
+    private void endAttackPhase() {
+        key ^= Zobrist.attacker(attacker) ^ Zobrist.attacker(1 - attacker) ^ Zobrist.phase(attackingPhase);
+        attacker = 1 - attacker;
+        attackingPhase = true;
+        clearTable();
+        dealCards();
+    }
+
+    private void dealCards() {
+        for (int seat = 0; seat < 2; seat++) {
+            while (Long.bitCount(hands[seat]) < Game.INITIAL_CARDS && cursor < deckOrder.length) {
+                int card = deckOrder[cursor++];
+                hands[seat] |= 1L << card;
+                deckMask &= ~(1L << card);
+                key ^= Zobrist.card(Zobrist.DECK, card) ^ Zobrist.card(seat, card);
+            }
+        }
+    }
+
+    private void checkForGameOver() {
+        if (hands[0] == 0) {
+            winner = 0;
+        } else if (hands[1] == 0) {
+            winner = 1;
+        }
+    }
+
+    public long getHand(int seat) {
+        return hands[seat];
+    }
+
+    /**
+     * Zobrist key of the current position, kept up to date by make/unmake.
+     */
+    public long getKey() {
+        return key;
+    }
+
+    public long getTable() {
+        return table;
+    }
+
+    public int getAttackCard() {
+        return attackCard;
+    }
+
+    public long getDeckMask() {
+        return deckMask;
+    }
+
+    public int getDeckSize() {
+        return deckOrder.length - cursor;
+    }
+
+    public int getTrump() {
+        return trump;
+    }
+
+    public int getAttacker() {
+        return attacker;
+    }
+
+    public boolean isAttackingPhase() {
+        return attackingPhase;
+    }
+
+    public int getSideToMove() {
+        return attackingPhase ? attacker : 1 - attacker;
+    }
+
+    public boolean isGameOver() {
+        return winner != GameState.NO_WINNER;
+    }
+
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * Number of moves that can currently be unmade.
+     */
+    public int getPly() {
+        return ply;
+    }
+}
@@ -0,0 +1,144 @@
+package game;
+
+/**
+ * Maps positions to a canonical suit labelling. Suits only differ by being
+ * trump or not, so a position and its suit-permuted twin have the same
+ * value. The canonical form relabels the trump suit as suit 0 and orders
+ * the other suits by their cards in hand 0, hand 1, on the table and in the
+ * discard pile, so every equivalence class (up to 24 labellings) is stored
+ * once by position-keyed structures.
+ *
+ * A permutation is packed into an int, two bits per original suit holding
+ * its new suit: bits 2s..2s+1 = new label of suit s.
+ */
+public final class SuitCanonicalizer {
+    public static final int IDENTITY = 0b11_10_01_00;
+
+    private static final int SUIT_COUNT = Card.Suit.values().length;
+    private static final long SUIT_BITS = (1L << CardSet.RANK_COUNT) - 1;
+
+    private SuitCanonicalizer() {
+    }
+
+    /**
+     * Permutation taking the position to its canonical form.
+     */
+    public static int permutation(long hand0, long hand1, long table, long discard, int trump) {
+        int permutation = 0;
+        for (int suit = 0; suit < SUIT_COUNT; suit++) {
+            if (suit == trump) {
+                continue;
+            }
+            // Non-trump suits get labels 1..3 by signature, highest first
+            long signature = signature(hand0, hand1, table, discard, suit);
+            int label = 1;
+            for (int other = 0; other < SUIT_COUNT; other++) {
+                if (other == trump || other == suit) {
+                    continue;
+                }
+                long otherSignature = signature(hand0, hand1, table, discard, other);
+                if (otherSignature > signature || otherSignature == signature && other < suit) {
+                    label++;
+                }
+            }
+            permutation |= label << 2 * suit;
+        }
+        return permutation;
+    }
+
+    public static int permutation(GameState state) {
+        return permutation(state.getHand(0), state.getHand(1), state.getTable(),
+                state.getDiscardMask(), state.getTrump());
+    }
+
+    /**
+     * The state relabelled by the permutation, including the deck order.
+     */
+    public static GameState permute(GameState state, int permutation) {
+        byte[] order = new byte[CardSet.CARD_COUNT];
+        for (int i = state.getCursor(); i < order.length; i++) {
+            order[i] = (byte) permuteCard(state.getDeckCard(i), permutation);
+        }
+        int attackCard = state.getAttackCard();
+        return GameState.of(permute(state.getHand(0), permutation), permute(state.getHand(1), permutation),
+                permute(state.getTable(), permutation),
+                attackCard == GameState.NO_CARD ? GameState.NO_CARD : permuteCard(attackCard, permutation),
+                order, state.getCursor(), permuteSuit(state.getTrump(), permutation),
+                state.getAttacker(), state.isAttackingPhase(), state.getWinner());
+    }
+
+    /**
+     * Canonical form of the state; pair it with {@link #permutation(GameState)}
+     * to map moves back with {@link #inverse(int)}.
+     */
+    public static GameState canonicalize(GameState state) {
+        return permute(state, permutation(state));
+    }
+
+    /**
+     * Zobrist key of the canonical form, without building it.
+     */
+    public static long canonicalKey(GameState state) {
+        return canonicalKey(state.getHand(0), state.getHand(1), state.getTable(), state.getDeckMask(),
+                state.getTrump(), state.getAttacker(), state.isAttackingPhase());
+    }
+
+    /**
+     * Zobrist key of the canonical form of a position given by its masks,
+     * e.g. the current position of a {@link SearchGame}. Cards in none of
+     * the masks are taken as discarded.
+     */
+    public static long canonicalKey(long hand0, long hand1, long table, long deck, int trump,
+                                    int attacker, boolean attackingPhase) {
+        long discard = CardSet.ALL & ~(hand0 | hand1 | table | deck);
+        int permutation = permutation(hand0, hand1, table, discard, trump);
+        return Zobrist.key(permute(hand0, permutation), permute(hand1, permutation),
+                permute(table, permutation), permute(deck, permutation),
+                permuteSuit(trump, permutation), attacker, attackingPhase);
+    }
+
+    public static long permute(long mask, int permutation) {
+        long result = 0;
+        for (int suit = 0; suit < SUIT_COUNT; suit++) {
+            long bits = mask >>> suit * CardSet.RANK_COUNT & SUIT_BITS;
+            result |= bits << permuteSuit(suit, permutation) * CardSet.RANK_COUNT;
+        }
+        return result;
+    }
+
+    public static int permuteCard(int card, int permutation) {
+        return permuteSuit(card / CardSet.RANK_COUNT, permutation) * CardSet.RANK_COUNT
+                + card % CardSet.RANK_COUNT;
+    }
+
+    public static int permuteSuit(int suit, int permutation) {
+        return permutation >>> 2 * suit & 3;
+    }
+
+    /**
+     * Relabels the card of a move; TAKE and PASS are unchanged.
+     */
+    public static int permuteMove(int move, int permutation) {
+        if (!Move.hasCard(move)) {
+            return move;
+        }
+        int card = permuteCard(Move.card(move), permutation);
+        return Move.type(move) == Move.ATTACK ? Move.attack(card) : Move.defend(card);
+    }
+
+    public static int inverse(int permutation) {
+        int inverse = 0;
+        for (int suit = 0; suit < SUIT_COUNT; suit++) {
+            inverse |= suit << 2 * permuteSuit(suit, permutation);
+        }
+        return inverse;
+    }
+
+    private static long signature(long hand0, long hand1, long table, long discard, int suit) {
+        int shift = suit * CardSet.RANK_COUNT;
+        return (hand0 >>> shift & SUIT_BITS) << 3 * CardSet.RANK_COUNT
+                | (hand1 >>> shift & SUIT_BITS) << 2 * CardSet.RANK_COUNT
+                | (table >>> shift & SUIT_BITS) << CardSet.RANK_COUNT
+                | discard >>> shift & SUIT_BITS;
+    }
+}
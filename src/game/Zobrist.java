@@ -0,0 +1,81 @@
+package game;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist keys for positions. A position key is the XOR of one random
+ * 64-bit key per (card, location) for cards in a hand, on the table or in
+ * the deck, plus keys for the trump suit, the attacker and the defense
+ * phase; discarded cards contribute nothing. Moving a card or switching
+ * the side to move is a couple of XORs, so {@link Game} and
+ * {@link SearchGame} keep the key up to date as they go.
+ * The keys come from a fixed seed and are the same in every run.
+ */
+public final class Zobrist {
+    public static final int HAND0 = 0;
+    public static final int HAND1 = 1;
+    public static final int TABLE = 2;
+    public static final int DECK = 3;
+    private static final int LOCATIONS = 4;
+
+    private static final long[] CARD_KEYS = new long[LOCATIONS * CardSet.CARD_COUNT];
+    private static final long[] TRUMP_KEYS = new long[Card.Suit.values().length];
+    private static final long[] ATTACKER_KEYS = new long[2];
+    private static final long DEFENSE_KEY;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EED_D0A4L);
+        for (int i = 0; i < CARD_KEYS.length; i++) {
+            CARD_KEYS[i] = random.nextLong();
+        }
+        for (int i = 0; i < TRUMP_KEYS.length; i++) {
+            TRUMP_KEYS[i] = random.nextLong();
+        }
+        ATTACKER_KEYS[0] = random.nextLong();
+        ATTACKER_KEYS[1] = random.nextLong();
+        DEFENSE_KEY = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Key of one card at a location; a seat index works as HAND0/HAND1.
+     */
+    public static long card(int location, int card) {
+        return CARD_KEYS[location * CardSet.CARD_COUNT + card];
+    }
+
+    /**
+     * XOR of the keys of all cards in the mask at a location.
+     */
+    public static long cards(int location, long mask) {
+        long key = 0;
+        int base = location * CardSet.CARD_COUNT;
+        for (; mask != 0; mask &= mask - 1) {
+            key ^= CARD_KEYS[base + Long.numberOfTrailingZeros(mask)];
+        }
+        return key;
+    }
+
+    public static long trump(int suit) {
+        return TRUMP_KEYS[suit];
+    }
+
+    public static long attacker(int seat) {
+        return ATTACKER_KEYS[seat];
+    }
+
+    public static long phase(boolean attackingPhase) {
+        return attackingPhase ? 0 : DEFENSE_KEY;
+    }
+
+    /**
+     * Key of a position computed from scratch.
+     */
+    public static long key(long hand0, long hand1, long table, long deckMask,
+                           int trump, int attacker, boolean attackingPhase) {
+        return cards(HAND0, hand0) ^ cards(HAND1, hand1) ^ cards(TABLE, table) ^ cards(DECK, deckMask)
+                ^ trump(trump) ^ attacker(attacker) ^ phase(attackingPhase);
+    }
+}
@@ -1,300 +1,700 @@
-package main;
-
-import ai.Logger;
-import ai.Logger.Level;
-import ai.AIPlayer1lvl;
-import ai.AIPlayer2lvl;
-import game.Card;
-import game.Game;
-import game.*;
-import game.Player;
-import game.Card.Suit;
-import game.Game.GameStateListener;
-import java.io.*;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.*;
-
-public class Main {
-    private static boolean logToFile = false;
-    private static PrintStream fileLogger = null;
-
-    public static void main(String[] args) {
-        if (args.length == 0 || Arrays.asList(args).contains("--help")) {
-            showHelp();
-            return;
-        }
-
-        // Logging setup
-        if (Arrays.asList(args).contains("--logFile")) {
-            logToFile = true;
-            setupFileLogger();
-        }
-
-        // Player selection
-        Player player1 = createPlayer(args[0], "Player 1");
-        Player player2 = createPlayer(args[1], "Player 2");
-
-        if (player1 == null || player2 == null) {
-            System.out.println("Invalid player configuration. Use --help for help.");
-            return;
-        }
-
-        // Game creation
-        Game game = new Game(player1, player2);
-        game.addGameStateListener(new Game.GameStateListener() {
-            @Override
-            public void onGameStarted() {
-                log("Game started");
-            }
-
-            @Override
-            public void onGameStateChanged(Game game) {
-                log("Turn changed");
-                printGameState(game);
-            }
-
-            @Override
-            public void onCardPlayed(Player player, Card card) {
-                log(player.getName() + " played " + card);
-            }
-
-            @Override
-            public void onGameEnded(Player winner) {
-                log("Game over. Winner: " + winner.getName());
-                System.out.println("\nGame Over!");
-                System.out.println("Winner: " + winner.getName());
-                printFinalHands(game.getPlayers());
-            }
-        });
-
-        // Start the game
-        game.startGame();
-        playGame(game);
-    }
-
-    private static Player createPlayer(String type, String defaultName) {
-        switch (type.toLowerCase()) {
-            case "1lvl":
-                return new AIPlayer1lvl(defaultName);
-            case "2lvl":
-                return new AIPlayer2lvl(defaultName);
-            case "player":
-                return new HumanPlayer(defaultName);
-            default:
-                System.out.println("Unknown player type: " + type);
-                return null;
-        }
-    }
-
-    private static void showHelp() {
-        System.out.println("Usage: java Main <player1> <player2> [options]");
-        System.out.println("Players:");
-        System.out.println("  1lvl - AI Level 1");
-        System.out.println("  2lvl - AI Level 2");
-        System.out.println("  player - Human player");
-        System.out.println("Options:");
-        System.out.println("  --logFile - Save logs to file");
-        System.out.println("  --help - Show this help");
-        System.out.println("\nExamples:");
-        System.out.println("  java Main 1lvl 2lvl --logFile");
-        System.out.println("  java Main player 2lvl");
-    }
-
-    private static void setupFileLogger() {
-        try {
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-            File logFile = new File("duruak_log_" + timestamp + ".log");
-            fileLogger = new PrintStream(new FileOutputStream(logFile));
-            
-            // Intercept standard output
-            System.setOut(new PrintStream(new OutputStream() {
-                @Override
-                public void write(int b) {
-                    System.out.write(b);
-                    fileLogger.write(b);
-                }
-            }));
-            
-            System.out.println("Logging to file: " + logFile.getAbsolutePath());
-        } catch (FileNotFoundException e) {
-            System.err.println("Failed to create log file: " + e.getMessage());
-        }
-    }
-
-    private static void log(String message) {
-        if (logToFile && fileLogger != null) {
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-            fileLogger.printf("[%s] %s%n", timestamp, message);
-        }
-    }
-
-    private static void printGameState(Game game) {
-        clearConsole();
-        
-        System.out.println("=== DURAK GAME ===");
-        System.out.println("Trump Suit: " + game.getDeck().getTrumpSuit().getSymbol());
-        System.out.println("Remaining cards in deck: " + game.getDeck().remainingCards());
-        System.out.println();
-
-        for (Player player : game.getPlayers()) {
-            System.out.print(player.getName() + "'s hand (" + player.getHandSize() + " cards): ");
-            printHand(player.getHand(), player.isHuman());
-            System.out.println();
-        }
-
-        System.out.println("\nCards on table:");
-        printHand(game.getCardsOnTable(), true);
-        System.out.println("\nCurrent phase: " + (game.isAttackingPhase() ? "Attack" : "Defense"));
-        System.out.println("Attacker: " + game.getAttacker().getName());
-        System.out.println("Defender: " + game.getDefender().getName());
-        System.out.println();
-    }
-
-    private static void printFinalHands(List<Player> players) {
-        System.out.println("\nFinal hands:");
-        for (Player player : players) {
-            System.out.print(player.getName() + ": ");
-            printHand(player.getHand(), true);
-        }
-    }
-
-    private static void printHand(List<Card> cards, boolean reveal) {
-        List<Card> displayCards = new ArrayList<>(cards);
-        
-        if (!reveal) {
-            displayCards = new ArrayList<>();
-            for (int i = 0; i < cards.size(); i++) {
-                Card hidden = new Card(Card.Suit.SPADE, Card.Rank.SIX);
-                hidden.setFaceUp(false);
-                displayCards.add(hidden);
-            }
-        }
-
-        if (displayCards.isEmpty()) {
-            System.out.println("Empty");
-            return;
-        }
-
-        StringBuilder[] lines = new StringBuilder[3];
-        for (int i = 0; i < 3; i++) {
-            lines[i] = new StringBuilder();
-        }
-
-        for (Card card : displayCards) {
-            if (card.isFaceUp()) {
-                lines[0].append(card.getRank()).append(card.getSuit().getSymbol()).append(" ");
-                lines[1].append("──── ").append(" ");
-                lines[2].append("    ").append(" ");
-            } else {
-                lines[0].append("[??] ");
-                lines[1].append("──── ");
-                lines[2].append("    ");
-            }
-        }
-
-        for (StringBuilder line : lines) {
-            System.out.println(line);
-        }
-    }
-
-    private static void playGame(Game game) {
-        Scanner scanner = new Scanner(System.in);
-        
-        while (!game.isGameOver()) {
-            Player currentPlayer = game.getCurrentPlayer();
-            
-            if (currentPlayer.isHuman()) {
-                game.handleHumanTurn(currentPlayer, scanner);
-            } else {
-                // AI plays as usual
-
-                // For AI just call playCard or defendCard
-                if (game.isAttackingPhase()) {
-                    Card card = currentPlayer.playCard(game, game.getCardsOnTable());
-                    if (card != null) {
-                        game.playCard(currentPlayer, card);
-                    }
-                } else {
-                    Card attackCard = game.getCardsOnTable().isEmpty() ? null : game.getCardsOnTable().get(0);
-                    if (attackCard != null) {
-                        Card defendCard = currentPlayer.defendCard(game, attackCard);
-                        if (defendCard != null) {
-                            game.defendCard(currentPlayer, defendCard);
-                        }
-                    }
-                }
-            }
-            
-            game.nextTurn();
-        }
-        
-        scanner.close();
-    }
-
-    private static void handleHumanTurn(HumanPlayer player, Game game, Scanner scanner) {
-        System.out.println("\nYour turn, " + player.getName() + "!");
-        System.out.println("Your hand:");
-        printHand(player.getHand(), true);
-        
-        if (game.isAttackingPhase()) {
-            System.out.println("\nChoose a card to attack (number), or 0 to surrender:");
-            List<Card> playableCards = player.getPlayableCards(game.getCardsOnTable());
-            for (int i = 0; i < playableCards.size(); i++) {
-                System.out.println((i + 1) + ": " + playableCards.get(i));
-            }
-            
-            int choice = getValidInt(scanner, 0, playableCards.size());
-            if (choice == 0) {
-                game.surrender(player);
-                return;
-            }
-            
-            game.playCard(player, playableCards.get(choice - 1));
-        } else {
-            Card attackCard = game.getCardsOnTable().get(0);
-            System.out.println("\nYou need to defend against: " + attackCard);
-            List<Card> beatableCards = player.getBeatableCards(attackCard, game.getDeck().getTrumpSuit());
-            
-            if (beatableCards.isEmpty()) {
-                System.out.println("No cards to defend. You have to take the cards.");
-                return;
-            }
-            
-            System.out.println("Choose a card to defend (number):");
-            for (int i = 0; i < beatableCards.size(); i++) {
-                System.out.println((i + 1) + ": " + beatableCards.get(i));
-            }
-            
-            int choice = getValidInt(scanner, 1, beatableCards.size());
-            game.defendCard(player, beatableCards.get(choice - 1));
-        }
-    }
-
-    private static int getValidInt(Scanner scanner, int min, int max) {
-        while (true) {
-            try {
-                int value = Integer.parseInt(scanner.nextLine());
-                if (value >= min && value <= max) {
-                    return value;
-                }
-                System.out.println("Please enter a number between " + min + " and " + max + ":");
-            } catch (NumberFormatException e) {
-                System.out.println("Invalid input. Please enter a number:");
-            }
-        }
-    }
-
-    private static void clearConsole() {
-        try {
-            if (System.getProperty("os.name").contains("Windows")) {
-                new ProcessBuilder("cmd", "/c", "cls").inheritIO().start().waitFor();
-            } else {
-                System.out.print("\033[H\033[2J");
-                System.out.flush();
-            }
-        } catch (Exception e) {
-            // Ignore
-        }
-    }
-}
+package main;
+
+import ai.Logger;
+import ai.Logger.Level;
+import ai.AIPlayer1lvl;
+import ai.AIPlayer2lvl;
+import ai.level3.AIPlayer3lvl;
+import ai.level3.AIPlayerEval;
+import ai.level3.AIPlayerPimc;
+import ai.level3.analysis.LinearEvaluator;
+import ai.level3.memory.OpponentModel;
+import ai.level3.search.MoveSearch;
+import ai.level3.search.ParallelMode;
+import ai.level3.search.RootParallelSearch;
+import ai.level3.search.Tablebase;
+import ai.level3.search.TablebaseBuilder;
+import ai.level3.search.TreeParallelSearch;
+import game.Card;
+import game.Game;
+import game.*;
+import game.Player;
+import game.Card.Suit;
+import game.Game.GameStateListener;
+import sim.MatchStats;
+import sim.PlayerFactory;
+import sim.Simulator;
+import sim.SpsaTuner;
+import sim.Tournament;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+public class Main {
+    private static final int SEARCH_THREADS = Runtime.getRuntime().availableProcessors();
+    private static boolean logToFile = false;
+    private static PrintStream fileLogger = null;
+
+    public static void main(String[] args) {
+        if (args.length == 0 || Arrays.asList(args).contains("--help")) {
+            showHelp();
+            return;
+        }
+
+        if (args[0].equalsIgnoreCase("simulate")) {
+            runSimulation(args);
+            return;
+        }
+
+        if (args[0].equalsIgnoreCase("tournament")) {
+            runTournament(args);
+            return;
+        }
+
+        if (args[0].equalsIgnoreCase("bench3lvl")) {
+            runSearchBenchmark(args);
+            return;
+        }
+
+        if (args[0].equalsIgnoreCase("tablebase")) {
+            buildTablebase(args);
+            return;
+        }
+
+        if (args[0].equalsIgnoreCase("tune")) {
+            runTuning(args);
+            return;
+        }
+
+        // Logging setup
+        if (Arrays.asList(args).contains("--logFile")) {
+            logToFile = true;
+            setupFileLogger();
+        }
+
+        // Level 3 keeps opponent profiles between runs only in a file named here
+        String opponents = getOption(args, "--opponents", null);
+        if (opponents != null) {
+            System.setProperty(OpponentModel.PATH_PROPERTY, opponents);
+        }
+
+        // Player selection
+        Player player1 = createPlayer(args[0], "Player 1");
+        Player player2 = createPlayer(args[1], "Player 2");
+
+        if (player1 == null || player2 == null) {
+            System.out.println("Invalid player configuration. Use --help for help.");
+            return;
+        }
+
+        // Game creation
+        Game game = new Game(player1, player2);
+        game.addGameStateListener(new Game.GameStateListener() {
+            @Override
+            public void onGameStarted() {
+                log("Game started");
+            }
+
+            @Override
+            public void onGameStateChanged(Game game) {
+                log("Turn changed");
+                printGameState(game);
+            }
+
+            @Override
+            public void onCardPlayed(Player player, Card card) {
+                log(player.getName() + " played " + card);
+            }
+
+            @Override
+            public void onGameEnded(Player winner) {
+                log("Game over. Winner: " + winner.getName());
+                System.out.println("\nGame Over!");
+                System.out.println("Winner: " + winner.getName());
+                printFinalHands(game.getPlayers());
+            }
+        });
+
+        // Start the game
+        game.startGame();
+        playGame(game);
+    }
+
+    private static Player createPlayer(String type, String defaultName) {
+        return createPlayer(type, defaultName, SEARCH_THREADS, new SplittableRandom());
+    }
+
+    /**
+     * @param searchThreads threads of the 3lvl-root, 3lvl-tree and pimc searches
+     * @param random generator of the level 3 players
+     */
+    private static Player createPlayer(String type, String defaultName, int searchThreads,
+                                       SplittableRandom random) {
+        switch (type.toLowerCase()) {
+            case "1lvl":
+                return new AIPlayer1lvl(defaultName);
+            case "2lvl":
+                return new AIPlayer2lvl(defaultName);
+            case "3lvl":
+                return new AIPlayer3lvl(defaultName, Integer.MAX_VALUE, AIPlayer3lvl.DEFAULT_TIME_BUDGET_MS, random);
+            case "3lvl-root":
+                return createParallelAI(defaultName, ParallelMode.ROOT, searchThreads, random);
+            case "3lvl-tree":
+                return createParallelAI(defaultName, ParallelMode.TREE, searchThreads, random);
+            case "3lvl-eval":
+                return new AIPlayerEval(defaultName, LinearEvaluator.createDefault(), Integer.MAX_VALUE,
+                        AIPlayer3lvl.DEFAULT_TIME_BUDGET_MS, random);
+            case "pimc":
+                return new AIPlayerPimc(defaultName, Integer.MAX_VALUE, AIPlayer3lvl.DEFAULT_TIME_BUDGET_MS,
+                        searchThreads, random);
+            case "player":
+                return new HumanPlayer(defaultName);
+            default:
+                System.out.println("Unknown player type: " + type);
+                return null;
+        }
+    }
+
+    private static Player createParallelAI(String name, ParallelMode mode, int threads, SplittableRandom random) {
+        return new AIPlayer3lvl(name, Integer.MAX_VALUE, AIPlayer3lvl.DEFAULT_TIME_BUDGET_MS,
+                mode, threads, random);
+    }
+
+    /**
+     * Runs the level 3 search on a fixed set of positions with a fixed time
+     * per position, for 1, 2, 4 ... threads, and prints the playout rate.
+     * The ratio to one thread is not a pure parallel speedup: root parallel
+     * trees are smaller than one tree over all playouts, so each playout is
+     * cheaper. Thread counts above the available processors are skipped,
+     * since they would only measure time slicing.
+     */
+    private static void runSearchBenchmark(String[] args) {
+        ParallelMode mode = "root".equalsIgnoreCase(getOption(args, "--mode", "tree"))
+                ? ParallelMode.ROOT : ParallelMode.TREE;
+        int cores = Runtime.getRuntime().availableProcessors();
+        int maxThreads = (int) parseLongOption(args, "--threads", cores);
+        int positionCount = (int) parseLongOption(args, "--positions", 20);
+        long millis = parseLongOption(args, "--millis", AIPlayer3lvl.DEFAULT_TIME_BUDGET_MS);
+        long seed = parseLongOption(args, "--seed", 42);
+        Logger.setLogLevel(Level.OFF);
+
+        System.out.println("Available processors: " + cores);
+        if (maxThreads > cores) {
+            System.out.println("Warning: only thread counts up to " + cores
+                    + " are measured; more threads than processors would share cores");
+            maxThreads = cores;
+        }
+        List<GameState> positions = collectPositions(positionCount, seed);
+
+        double baseline = 0;
+        for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+            MoveSearch search = mode == ParallelMode.ROOT
+                    ? new RootParallelSearch(threads) : new TreeParallelSearch(threads);
+            // The first pass warms up the JIT and is not counted
+            runPositions(search, positions, millis, seed);
+            long[] totals = runPositions(search, positions, millis, seed);
+            double rate = totals[1] == 0 ? 0 : totals[0] * 1e9 / totals[1];
+            if (threads == 1) {
+                baseline = rate;
+            }
+            System.out.printf("%s, %d threads: %.0f playouts/s, %.0f per thread (playouts/s ratio to 1 thread %.2f)%n",
+                    mode, threads, rate, rate / threads, baseline == 0 ? 0 : rate / baseline);
+        }
+    }
+
+    /**
+     * Positions where the side to move has a choice, taken from level 2
+     * self-play with the given seed.
+     */
+    private static List<GameState> collectPositions(int count, long seed) {
+        List<GameState> positions = new ArrayList<>();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        SplittableRandom random = new SplittableRandom(seed);
+        while (positions.size() < count) {
+            Game game = new Game(new AIPlayer2lvl("Player 1"), new AIPlayer2lvl("Player 2"), new Deck(random.split()));
+            game.startGame();
+            for (int turn = 0; !game.isGameOver() && turn < Simulator.MAX_TURNS && positions.size() < count; turn++) {
+                GameState state = game.getState();
+                // Every third decision, so the set spans the whole game
+                if (turn % 3 == 0 && MoveGenerator.generate(state, moves) > 1) {
+                    positions.add(state);
+                }
+                Simulator.play(game, 1);
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Searches every position until the deadline.
+     * @return playouts and nanoseconds spent
+     */
+    private static long[] runPositions(MoveSearch search, List<GameState> positions, long millis, long seed) {
+        long iterations = 0;
+        long nanos = 0;
+        for (GameState state : positions) {
+            long start = System.nanoTime();
+            search.search(state, state.getSideToMove(), 0, 0, Integer.MAX_VALUE,
+                    start + millis * 1_000_000L, new SplittableRandom(seed));
+            nanos += System.nanoTime() - start;
+            iterations += search.getLastIterations();
+        }
+        return new long[]{iterations, nanos};
+    }
+
+    private static int nextThreadCount(int threads, int maxThreads) {
+        return threads < maxThreads && threads * 2 > maxThreads ? maxThreads : threads * 2;
+    }
+
+    private static void showHelp() {
+        System.out.println("Usage: java Main <player1> <player2> [options]");
+        System.out.println("Players:");
+        System.out.println("  1lvl - AI Level 1");
+        System.out.println("  2lvl - AI Level 2");
+        System.out.println("  3lvl - AI Level 3 (ISMCTS, 50 ms per move)");
+        System.out.println("  3lvl-root, 3lvl-tree - AI Level 3 searching on all cores");
+        System.out.println("  3lvl-eval - AI Level 3 cutting rollouts short with the evaluator (durak.weights");
+        System.out.println("              or -D" + LinearEvaluator.PATH_PROPERTY + "=path if present, else built-in weights)");
+        System.out.println("  pimc - Perfect Information Monte Carlo over sampled deals, all cores");
+        System.out.println("  player - Human player");
+        System.out.println("Options:");
+        System.out.println("  --logFile - Save logs to file");
+        System.out.println("  --opponents <file> - Load and save level 3 opponent profiles in this file");
+        System.out.println("  --help - Show this help");
+        System.out.println("\nHeadless simulation:");
+        System.out.println("  java Main simulate <ai1> <ai2> [--games N] [--seed S]");
+        System.out.println("    --seed fixes the decks and the random choices of the AIs: 1lvl and 2lvl games repeat");
+        System.out.println("    exactly, level 3 and pimc search for a fixed time per move and can still differ");
+        System.out.println("  java Main tournament <ai1> <ai2> [<ai3> ...] [--games N] [--seed S] [--threads T]");
+        System.out.println("    --games is per pairing; with more than two AIs every pair plays (round robin)");
+        System.out.println("    3lvl-root, 3lvl-tree and pimc search on cores / T threads each, since T games run at once");
+        System.out.println("  java Main bench3lvl [--mode root|tree] [--threads T] [--positions N] [--millis M] [--seed S]");
+        System.out.println("    searches N fixed positions for M ms each with 1, 2, 4 ... T threads (at most one per");
+        System.out.println("    processor) and reports playouts/s per thread count and per thread");
+        System.out.println("  java Main tablebase [--cards N] [--out durak.tb]");
+        System.out.println("    solves endgames with up to N cards in both hands; level 3 reads durak.tb");
+        System.out.println("    (or -D" + Tablebase.PATH_PROPERTY + "=path) from the working directory");
+        System.out.println("  java Main tune [--iterations N] [--games G] [--threads T] [--seed S]");
+        System.out.println("                 [--checkpoint durak.tune] [--out durak.weights] [--verify V]");
+        System.out.println("    tunes evaluator weights by SPSA self-play, G games per iteration;");
+        System.out.println("    resumes from the checkpoint if it exists, then plays V games of 3lvl-eval");
+        System.out.println("    with the tuned against the built-in weights (0 skips the check)");
+        System.out.println("\nExamples:");
+        System.out.println("  java Main 1lvl 2lvl --logFile");
+        System.out.println("  java Main player 2lvl");
+        System.out.println("  java Main simulate 1lvl 2lvl --games 1000000 --seed 42");
+        System.out.println("  java Main tournament 1lvl 2lvl --games 10000000 --threads 64");
+    }
+
+    /**
+     * Games run in parallel, so the players that search on several threads
+     * share the processors: each gets cores / --threads search threads
+     * instead of all cores, which would oversubscribe the CPU.
+     */
+    private static void runTournament(String[] args) {
+        int threads = (int) parseLongOption(args, "--threads", Runtime.getRuntime().availableProcessors());
+        int searchThreads = Math.max(1, SEARCH_THREADS / Math.max(1, threads));
+        List<Tournament.Entrant> entrants = new ArrayList<>();
+        for (int i = 1; i < args.length && !args[i].startsWith("--"); i++) {
+            PlayerFactory factory = createFactory(args[i], searchThreads);
+            if (factory == null) {
+                System.out.println("Invalid player configuration. Use --help for help.");
+                return;
+            }
+            String name = args[i];
+            for (int copy = 2; containsEntrant(entrants, name); copy++) {
+                name = args[i] + "#" + copy;
+            }
+            entrants.add(new Tournament.Entrant(name, factory));
+        }
+        if (entrants.size() < 2) {
+            System.out.println("A tournament needs at least two AI players");
+            return;
+        }
+
+        long games = parseLongOption(args, "--games", 10000);
+        long seed = parseLongOption(args, "--seed", System.nanoTime());
+        Logger.setLogLevel(Level.OFF);
+
+        try (Tournament tournament = new Tournament(threads)) {
+            long start = System.nanoTime();
+            List<Tournament.PairResult> results = tournament.roundRobin(entrants, games, seed);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            long totalGames = 0;
+            Map<String, Long> wins = new LinkedHashMap<>();
+            for (Tournament.Entrant entrant : entrants) {
+                wins.put(entrant.getName(), 0L);
+            }
+            for (Tournament.PairResult result : results) {
+                MatchStats stats = result.getStats();
+                totalGames += stats.getGames();
+                wins.merge(result.getFirst().getName(), stats.getWins(0), Long::sum);
+                wins.merge(result.getSecond().getName(), stats.getWins(1), Long::sum);
+                System.out.printf("%s vs %s: %.2f%% - %.2f%% (unfinished %.2f%%, %.2f turns)%n",
+                        result.getFirst().getName(), result.getSecond().getName(),
+                        stats.getWinRate(0) * 100, stats.getWinRate(1) * 100,
+                        stats.getDrawRate() * 100, stats.getAverageTurns());
+            }
+
+            System.out.println("\nStandings:");
+            wins.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(e -> System.out.println("  " + e.getKey() + ": " + e.getValue() + " wins"));
+            System.out.printf("%nGames played: %d in %.2f s on %d threads (%.0f games/s, %.0f games/s per thread)%n",
+                    totalGames, seconds, tournament.getThreads(), totalGames / Math.max(seconds, 1e-9),
+                    totalGames / Math.max(seconds, 1e-9) / tournament.getThreads());
+            System.out.println("Search threads per 3lvl-root, 3lvl-tree or pimc player: " + searchThreads);
+        }
+    }
+
+    /**
+     * Solves every empty-deck position up to --cards cards in both hands and
+     * writes the tablebase the level 3 endgame solver picks up.
+     */
+    private static void buildTablebase(String[] args) {
+        int cards = (int) parseLongOption(args, "--cards", Tablebase.DEFAULT_MAX_CARDS);
+        String out = getOption(args, "--out", Tablebase.DEFAULT_PATH);
+
+        long start = System.nanoTime();
+        TablebaseBuilder builder = new TablebaseBuilder(cards).build();
+        try {
+            builder.write(Paths.get(out));
+        } catch (IOException e) {
+            System.out.println("Could not write tablebase " + out + ": " + e.getMessage());
+            return;
+        }
+        System.out.printf("Solved %d positions with up to %d cards in %.2f s, written to %s%n",
+                builder.getPositionCount(), cards, (System.nanoTime() - start) / 1e9, out);
+    }
+
+    private static void runTuning(String[] args) {
+        int iterations = (int) parseLongOption(args, "--iterations", 300);
+        int games = (int) parseLongOption(args, "--games", 20000);
+        int threads = (int) parseLongOption(args, "--threads", Runtime.getRuntime().availableProcessors());
+        long seed = parseLongOption(args, "--seed", 42);
+        Path checkpoint = Paths.get(getOption(args, "--checkpoint", "durak.tune"));
+        Path out = Paths.get(getOption(args, "--out", LinearEvaluator.DEFAULT_PATH));
+        long verifyGames = parseLongOption(args, "--verify", 100);
+        Logger.setLogLevel(Level.OFF);
+
+        try (SpsaTuner tuner = new SpsaTuner(threads, seed, 0.01, 0.05, iterations / 10.0)) {
+            if (Files.isRegularFile(checkpoint)) {
+                tuner.loadCheckpoint(checkpoint);
+                System.out.println("Resuming from iteration " + tuner.getIteration() + " of " + checkpoint);
+            }
+            double[] start = LinearEvaluator.defaultWeights();
+            long begin = System.nanoTime();
+            while (tuner.getIteration() < iterations) {
+                double score = tuner.step(games / 2);
+                int done = tuner.getIteration();
+                if (done % 10 == 0 || done == iterations) {
+                    tuner.saveCheckpoint(checkpoint);
+                    double seconds = tuner.getPlayNanos() / 1e9;
+                    double rate = tuner.getGamesPlayed() / Math.max(seconds, 1e-9);
+                    System.out.printf("Iteration %d: score %+.4f, %.0f games/s (%.0f per thread), %.0f s%n",
+                            done, score, rate, rate / tuner.getThreads(), (System.nanoTime() - begin) / 1e9);
+                    System.out.println("  weights " + Arrays.toString(tuner.getWeights()));
+                }
+            }
+            double versusStart = tuner.match(tuner.getWeights(), start, games, seed);
+            System.out.printf("Lookahead self-play, tuned vs built-in weights: score %+.4f over %d games%n", versusStart, games * 2);
+            LinearEvaluator.save(out, tuner.getWeights());
+            System.out.println("Weights written to " + out);
+            if (verifyGames > 0) {
+                verifyWeights(LinearEvaluator.load(out), verifyGames, threads, seed);
+            }
+        } catch (IOException e) {
+            System.out.println("Tuning failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Plays the 3lvl-eval player with the tuned weights against the same
+     * player with the built-in ones: the setting the weights are used in,
+     * unlike the open-card lookahead games they were tuned on.
+     */
+    private static void verifyWeights(double[] weights, long games, int threads, long seed) {
+        Tournament.Entrant tuned = new Tournament.Entrant("tuned", (name, random) -> new AIPlayerEval(name,
+                new LinearEvaluator(weights), Integer.MAX_VALUE, AIPlayer3lvl.DEFAULT_TIME_BUDGET_MS, random));
+        Tournament.Entrant builtIn = new Tournament.Entrant("built-in", (name, random) -> new AIPlayerEval(name,
+                new LinearEvaluator(), Integer.MAX_VALUE, AIPlayer3lvl.DEFAULT_TIME_BUDGET_MS, random));
+        try (Tournament tournament = new Tournament(threads)) {
+            MatchStats stats = tournament.headToHead(tuned, builtIn, games, seed).getStats();
+            System.out.printf("3lvl-eval, tuned vs built-in weights: %.2f%% - %.2f%% over %d games%n",
+                    stats.getWinRate(0) * 100, stats.getWinRate(1) * 100, stats.getGames());
+        }
+    }
+
+    private static void runSimulation(String[] args) {
+        if (args.length < 3) {
+            System.out.println("Usage: java Main simulate <ai1> <ai2> [--games N] [--seed S]");
+            return;
+        }
+
+        PlayerFactory first = createFactory(args[1], SEARCH_THREADS);
+        PlayerFactory second = createFactory(args[2], SEARCH_THREADS);
+        if (first == null || second == null) {
+            System.out.println("Invalid player configuration. Use --help for help.");
+            return;
+        }
+
+        long games = parseLongOption(args, "--games", 1000);
+        long seed = parseLongOption(args, "--seed", System.nanoTime());
+        Logger.setLogLevel(Level.OFF);
+
+        long start = System.nanoTime();
+        MatchStats stats = Simulator.run(first, second, games, seed);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        printStats(stats, args[1], args[2], seconds);
+    }
+
+    private static void printStats(MatchStats stats, String first, String second, double seconds) {
+        System.out.printf("Games played: %d in %.2f s (%.0f games/s)%n",
+                stats.getGames(), seconds, stats.getGames() / Math.max(seconds, 1e-9));
+        System.out.printf("Player 1 (%s) wins: %d (%.2f%%)%n",
+                first, stats.getWins(0), stats.getWinRate(0) * 100);
+        System.out.printf("Player 2 (%s) wins: %d (%.2f%%)%n",
+                second, stats.getWins(1), stats.getWinRate(1) * 100);
+        System.out.printf("Unfinished (turn limit): %d (%.2f%%)%n",
+                stats.getDraws(), stats.getDrawRate() * 100);
+        System.out.printf("Average game length: %.2f turns%n", stats.getAverageTurns());
+    }
+
+    /**
+     * Factory for AI players; human players are not allowed in headless modes.
+     * @param searchThreads threads of the 3lvl-root, 3lvl-tree and pimc searches
+     */
+    private static PlayerFactory createFactory(String type, int searchThreads) {
+        if (type.equalsIgnoreCase("player")) {
+            System.out.println("Human players cannot take part in a simulation");
+            return null;
+        }
+        if (createPlayer(type, "check", searchThreads, new SplittableRandom()) == null) {
+            return null;
+        }
+        return (name, random) -> createPlayer(type, name, searchThreads, random);
+    }
+
+    private static boolean containsEntrant(List<Tournament.Entrant> entrants, String name) {
+        for (Tournament.Entrant entrant : entrants) {
+            if (entrant.getName().equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String getOption(String[] args, String option, String defaultValue) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(option)) {
+                return args[i + 1];
+            }
+        }
+        return defaultValue;
+    }
+
+    private static long parseLongOption(String[] args, String option, long defaultValue) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(option)) {
+                try {
+                    return Long.parseLong(args[i + 1]);
+                } catch (NumberFormatException e) {
+                    System.out.println("Invalid value for " + option + ": " + args[i + 1]);
+                }
+            }
+        }
+        return defaultValue;
+    }
+
+    private static void setupFileLogger() {
+        try {
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+            File logFile = new File("duruak_log_" + timestamp + ".log");
+            fileLogger = new PrintStream(new FileOutputStream(logFile));
+            
+            // Intercept standard output
+            System.setOut(new PrintStream(new OutputStream() {
+                @Override
+                public void write(int b) {
+                    System.out.write(b);
+                    fileLogger.write(b);
+                }
+            }));
+            
+            System.out.println("Logging to file: " + logFile.getAbsolutePath());
+        } catch (FileNotFoundException e) {
+            System.err.println("Failed to create log file: " + e.getMessage());
+        }
+    }
+
+    private static void log(String message) {
+        if (logToFile && fileLogger != null) {
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+            fileLogger.printf("[%s] %s%n", timestamp, message);
+        }
+    }
+
+    private static void printGameState(Game game) {
+        clearConsole();
+        
+        System.out.println("=== DURAK GAME ===");
+        System.out.println("Trump Suit: " + game.getDeck().getTrumpSuit().getSymbol());
+        System.out.println("Remaining cards in deck: " + game.getDeck().remainingCards());
+        System.out.println();
+
+        for (Player player : game.getPlayers()) {
+            System.out.print(player.getName() + "'s hand (" + player.getHandSize() + " cards): ");
+            printHand(player.getHand(), player.isHuman() || player.isHandRevealed());
+            System.out.println();
+        }
+
+        System.out.println("\nCards on table:");
+        printHand(game.getCardsOnTable(), true);
+        System.out.println("\nCurrent phase: " + (game.isAttackingPhase() ? "Attack" : "Defense"));
+        System.out.println("Attacker: " + game.getAttacker().getName());
+        System.out.println("Defender: " + game.getDefender().getName());
+        System.out.println();
+    }
+
+    private static void printFinalHands(List<Player> players) {
+        System.out.println("\nFinal hands:");
+        for (Player player : players) {
+            System.out.print(player.getName() + ": ");
+            printHand(player.getHand(), true);
+        }
+    }
+
+    private static void printHand(List<Card> cards, boolean reveal) {
+        if (cards.isEmpty()) {
+            System.out.println("Empty");
+            return;
+        }
+
+        StringBuilder[] lines = new StringBuilder[3];
+        for (int i = 0; i < 3; i++) {
+            lines[i] = new StringBuilder();
+        }
+
+        for (Card card : cards) {
+            if (reveal) {
+                lines[0].append(card.getRank()).append(card.getSuit().getSymbol()).append(" ");
+                lines[1].append("──── ").append(" ");
+                lines[2].append("    ").append(" ");
+            } else {
+                lines[0].append("[??] ");
+                lines[1].append("──── ");
+                lines[2].append("    ");
+            }
+        }
+
+        for (StringBuilder line : lines) {
+            System.out.println(line);
+        }
+    }
+
+    private static void playGame(Game game) {
+        Scanner scanner = new Scanner(System.in);
+        
+        while (!game.isGameOver()) {
+            Player currentPlayer = game.getCurrentPlayer();
+            
+            if (currentPlayer.isHuman()) {
+                game.handleHumanTurn(currentPlayer, scanner);
+            } else {
+                // AI plays as usual
+
+                // For AI just call playCard or defendCard
+                if (game.isAttackingPhase()) {
+                    Card card = currentPlayer.playCard(game, game.getCardsOnTable());
+                    if (card != null) {
+                        game.playCard(currentPlayer, card);
+                    }
+                } else {
+                    Card attackCard = game.getCardsOnTable().isEmpty() ? null : game.getCardsOnTable().get(0);
+                    if (attackCard != null) {
+                        Card defendCard = currentPlayer.defendCard(game, attackCard);
+                        if (defendCard != null) {
+                            game.defendCard(currentPlayer, defendCard);
+                        }
+                    }
+                }
+            }
+            
+            game.nextTurn();
+        }
+        
+        scanner.close();
+    }
+
+    private static void handleHumanTurn(HumanPlayer player, Game game, Scanner scanner) {
+        System.out.println("\nYour turn, " + player.getName() + "!");
+        System.out.println("Your hand:");
+        printHand(player.getHand(), true);
+        
+        if (game.isAttackingPhase()) {
+            System.out.println("\nChoose a card to attack (number), or 0 to surrender:");
+            List<Card> playableCards = player.getPlayableCards(game.getCardsOnTable());
+            for (int i = 0; i < playableCards.size(); i++) {
+                System.out.println((i + 1) + ": " + playableCards.get(i));
+            }
+            
+            int choice = getValidInt(scanner, 0, playableCards.size());
+            if (choice == 0) {
+                game.surrender(player);
+                return;
+            }
+            
+            game.playCard(player, playableCards.get(choice - 1));
+        } else {
+            Card attackCard = game.getCardsOnTable().get(0);
+            System.out.println("\nYou need to defend against: " + attackCard);
+            List<Card> beatableCards = player.getBeatableCards(attackCard, game.getDeck().getTrumpSuit());
+            
+            if (beatableCards.isEmpty()) {
+                System.out.println("No cards to defend. You have to take the cards.");
+                return;
+            }
+            
+            System.out.println("Choose a card to defend (number):");
+            for (int i = 0; i < beatableCards.size(); i++) {
+                System.out.println((i + 1) + ": " + beatableCards.get(i));
+            }
+            
+            int choice = getValidInt(scanner, 1, beatableCards.size());
+            game.defendCard(player, beatableCards.get(choice - 1));
+        }
+    }
+
+    private static int getValidInt(Scanner scanner, int min, int max) {
+        while (true) {
+            try {
+                int value = Integer.parseInt(scanner.nextLine());
+                if (value >= min && value <= max) {
+                    return value;
+                }
+                System.out.println("Please enter a number between " + min + " and " + max + ":");
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid input. Please enter a number:");
+            }
+        }
+    }
+
+    private static void clearConsole() {
+        try {
+            if (System.getProperty("os.name").contains("Windows")) {
+                new ProcessBuilder("cmd", "/c", "cls").inheritIO().start().waitFor();
+            } else {
+                System.out.print("\033[H\033[2J");
+                System.out.flush();
+            }
+        } catch (Exception e) {
+            // Ignore
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package sim;
+
+/**
+ * Results of a series of games between two seats.
+ * Not thread-safe: every worker fills its own instance and they are merged at the end.
+ */
+public class MatchStats {
+    private final long[] wins = new long[2];
+    private long draws;
+    private long games;
+    private long totalTurns;
+
+    public void record(int winnerSeat, int turns) {
+        if (winnerSeat < 0) {
+            draws++;
+        } else {
+            wins[winnerSeat]++;
+        }
+        games++;
+        totalTurns += turns;
+    }
+
+    public void merge(MatchStats other) {
+        wins[0] += other.wins[0];
+        wins[1] += other.wins[1];
+        draws += other.draws;
+        games += other.games;
+        totalTurns += other.totalTurns;
+    }
+
+    public long getWins(int seat) {
+        return wins[seat];
+    }
+
+    public long getDraws() {
+        return draws;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public double getWinRate(int seat) {
+        return games == 0 ? 0 : (double) wins[seat] / games;
+    }
+
+    public double getDrawRate() {
+        return games == 0 ? 0 : (double) draws / games;
+    }
+
+    public double getAverageTurns() {
+        return games == 0 ? 0 : (double) totalTurns / games;
+    }
+}
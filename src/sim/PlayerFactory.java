@@ -0,0 +1,15 @@
+package sim;
+
+import game.Player;
+
+import java.util.SplittableRandom;
+
+/**
+ * Creates a fresh player for every simulated game.
+ * The generator is split from the seed of the game; players that draw
+ * random numbers should take them from it, so a seed repeats their choices.
+ */
+@FunctionalInterface
+public interface PlayerFactory {
+    Player create(String name, SplittableRandom random);
+}
@@ -0,0 +1,86 @@
+package sim;
+
+import game.Card;
+import game.Deck;
+import game.Game;
+import game.Player;
+
+import java.util.SplittableRandom;
+
+/**
+ * Plays games without listeners, console output or user input.
+ */
+public final class Simulator {
+    /** Games still running after this many turns are counted as draws. */
+    public static final int MAX_TURNS = 1000;
+
+    private Simulator() {
+    }
+
+    /**
+     * Plays an already started game to the end.
+     * @return number of turns played
+     */
+    public static int play(Game game, int maxTurns) {
+        int turns = 0;
+        while (!game.isGameOver() && turns < maxTurns) {
+            Player current = game.getCurrentPlayer();
+            if (game.isAttackingPhase()) {
+                Card card = current.playCard(game, game.getCardsOnTable());
+                if (card != null) {
+                    game.playCard(current, card);
+                }
+            } else {
+                Card attackCard = game.getAttackCard();
+                if (attackCard != null) {
+                    Card defendCard = current.defendCard(game, attackCard);
+                    if (defendCard != null) {
+                        game.defendCard(current, defendCard);
+                    }
+                }
+            }
+            game.nextTurn();
+            turns++;
+        }
+        return turns;
+    }
+
+    /**
+     * Plays one game and records it. The deck and both players get their
+     * own generators split from the given one, in the same order whatever
+     * the seats. When swapped, the second player takes seat 1 of the game
+     * but results are still recorded from the first player's side.
+     */
+    public static void playOne(PlayerFactory first, PlayerFactory second, SplittableRandom random,
+                               MatchStats stats, boolean swapped) {
+        Deck deck = new Deck(random.split());
+        Player firstPlayer = first.create("Player 1", random.split());
+        Player secondPlayer = second.create("Player 2", random.split());
+        Player player1 = swapped ? secondPlayer : firstPlayer;
+        Player player2 = swapped ? firstPlayer : secondPlayer;
+        Game game = new Game(player1, player2, deck);
+        game.startGame();
+        int turns = play(game, MAX_TURNS);
+
+        int winnerSeat = -1;
+        if (game.isGameOver()) {
+            boolean firstWon = game.getWinner() == (swapped ? player2 : player1);
+            winnerSeat = firstWon ? 0 : 1;
+        }
+        stats.record(winnerSeat, turns);
+    }
+
+    /**
+     * Plays a series of games on the calling thread.
+     * Every game gets its own generator split from the seed, so a series
+     * is reproducible as far as the players are: see {@link PlayerFactory}.
+     */
+    public static MatchStats run(PlayerFactory first, PlayerFactory second, long games, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        MatchStats stats = new MatchStats();
+        for (long i = 0; i < games; i++) {
+            playOne(first, second, random.split(), stats, false);
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,258 @@
+package sim;
+
+import ai.level3.analysis.LinearEvaluator;
+import ai.level3.search.LookaheadRolloutPolicy;
+import game.Card;
+import game.Deck;
+import game.Game;
+import game.MoveGenerator;
+import game.Player;
+import game.SearchGame;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Tunes {@link LinearEvaluator} weights by SPSA self-play.
+ * Every iteration perturbs all tuned weights at once by +-c_k, plays a batch
+ * of games between the two perturbed sets on a fork-join pool and moves the
+ * weights along the measured score difference. Players pick moves by
+ * one-ply lookahead with all cards open, which makes a game a few tens of
+ * microseconds. Every deal is played twice with the seats swapped.
+ *
+ * The weights are used elsewhere: the 3lvl-eval player
+ * ({@link ai.level3.AIPlayerEval}) scores cut-off ISMCTS rollouts with them,
+ * with hidden cards sampled. Gains in the tuning games therefore need to be
+ * confirmed by games of that player; Main's tune mode plays such a match
+ * after tuning.
+ *
+ * The random stream of an iteration is derived from the seed and the
+ * iteration number, and games are cut into fixed chunks as in
+ * {@link Tournament}. A run resumed from a checkpoint therefore continues
+ * exactly as the uninterrupted run would have, on any number of threads.
+ */
+public class SpsaTuner implements AutoCloseable {
+    /** Deal pairs per task. */
+    private static final int CHUNK_DEALS = 250;
+    private static final int MAX_PLIES = 400;
+    private static final double ALPHA = 0.602;
+    private static final double GAMMA = 0.101;
+    private static final String ITERATION_PREFIX = "# iteration ";
+
+    private final ForkJoinPool pool;
+    private final long seed;
+    private final double a;
+    private final double c;
+    private final double stability;
+    private final boolean[] tuned = new boolean[LinearEvaluator.FEATURE_COUNT];
+
+    private double[] weights;
+    private int iteration;
+    private long gamesPlayed;
+    private long playNanos;
+
+    /**
+     * @param threads worker threads
+     * @param seed seed of the whole run
+     * @param a step size gain
+     * @param c perturbation size
+     * @param stability iterations added to k in the step size decay (SPSA's A)
+     */
+    public SpsaTuner(int threads, long seed, double a, double c, double stability) {
+        this.pool = new ForkJoinPool(Math.max(1, threads));
+        this.seed = seed;
+        this.a = a;
+        this.c = c;
+        this.stability = stability;
+        this.weights = LinearEvaluator.defaultWeights();
+        for (int i = 0; i < tuned.length; i++) {
+            // Bias and stock size shift every move of a position alike
+            tuned[i] = i != LinearEvaluator.BIAS && i != LinearEvaluator.DECK;
+        }
+    }
+
+    public int getThreads() {
+        return pool.getParallelism();
+    }
+
+    public int getIteration() {
+        return iteration;
+    }
+
+    public double[] getWeights() {
+        return weights.clone();
+    }
+
+    public void setWeights(double[] weights) {
+        this.weights = weights.clone();
+    }
+
+    /** Games played by this instance, not counting the ones before a resume. */
+    public long getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+    /** Wall time spent playing games, ns. */
+    public long getPlayNanos() {
+        return playNanos;
+    }
+
+    /**
+     * Runs one SPSA iteration.
+     * @param deals deals per iteration; each is played twice
+     * @return score of the plus side minus the minus side, in [-1, 1]
+     */
+    public double step(int deals) {
+        SplittableRandom random = new SplittableRandom(seed ^ (iteration + 1) * 0x9E3779B97F4A7C15L);
+        double ck = c / Math.pow(iteration + 1, GAMMA);
+        double ak = a / Math.pow(iteration + 1 + stability, ALPHA);
+
+        double[] delta = new double[weights.length];
+        double[] plus = weights.clone();
+        double[] minus = weights.clone();
+        for (int i = 0; i < weights.length; i++) {
+            if (tuned[i]) {
+                delta[i] = random.nextBoolean() ? 1 : -1;
+                plus[i] += ck * delta[i];
+                minus[i] -= ck * delta[i];
+            }
+        }
+
+        double score = match(plus, minus, deals, random.nextLong());
+        for (int i = 0; i < weights.length; i++) {
+            if (tuned[i]) {
+                weights[i] += ak * score / (2 * ck * delta[i]);
+            }
+        }
+        iteration++;
+        return score;
+    }
+
+    /**
+     * Score of the first weight set against the second over deals played
+     * from both seats: (wins - losses) / games.
+     */
+    public double match(double[] first, double[] second, int deals, long matchSeed) {
+        long start = System.nanoTime();
+        int chunks = Math.max(1, (deals + CHUNK_DEALS - 1) / CHUNK_DEALS);
+        SplittableRandom random = new SplittableRandom(matchSeed);
+        List<ForkJoinTask<long[]>> tasks = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int chunkDeals = deals / chunks + (chunk < deals % chunks ? 1 : 0);
+            SplittableRandom chunkRandom = random.split();
+            tasks.add(pool.submit(() -> playChunk(first, second, chunkDeals, chunkRandom)));
+        }
+
+        long balance = 0;
+        long games = 0;
+        for (ForkJoinTask<long[]> task : tasks) {
+            long[] result = task.join();
+            balance += result[0];
+            games += result[1];
+        }
+        gamesPlayed += games;
+        playNanos += System.nanoTime() - start;
+        return games == 0 ? 0 : (double) balance / games;
+    }
+
+    /**
+     * Writes the iteration and the weights. The checkpoint is also a valid
+     * weights file; it is replaced atomically.
+     */
+    public void saveCheckpoint(Path path) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            out.write("# SPSA checkpoint, seed " + seed);
+            out.newLine();
+            out.write(ITERATION_PREFIX + iteration);
+            out.newLine();
+            for (int i = 0; i < weights.length; i++) {
+                out.write(LinearEvaluator.FEATURE_NAMES.get(i) + " " + weights[i]);
+                out.newLine();
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Restores the iteration and the weights of a checkpoint.
+     * @throws IOException if the file cannot be read or is not a checkpoint
+     */
+    public void loadCheckpoint(Path path) throws IOException {
+        int restored = -1;
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            if (line.startsWith(ITERATION_PREFIX)) {
+                restored = Integer.parseInt(line.substring(ITERATION_PREFIX.length()).trim());
+            }
+        }
+        if (restored < 0) {
+            throw new IOException("Not a tuning checkpoint: " + path);
+        }
+        weights = LinearEvaluator.load(path);
+        iteration = restored;
+    }
+
+    private static long[] playChunk(double[] first, double[] second, int deals, SplittableRandom random) {
+        LookaheadRolloutPolicy[] policies = {
+                new LookaheadRolloutPolicy(new LinearEvaluator(first)),
+                new LookaheadRolloutPolicy(new LinearEvaluator(second))};
+        SearchGame game = new SearchGame();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        long balance = 0;
+        long games = 0;
+        for (int i = 0; i < deals; i++) {
+            Game deal = new Game(new Seat(), new Seat(), new Deck(random.split()));
+            deal.startGame();
+            for (int firstSeat = 0; firstSeat < 2; firstSeat++) {
+                game.load(deal.getState());
+                for (int plies = 0; !game.isGameOver() && plies < MAX_PLIES; plies++) {
+                    int count = game.generateMoves(moves);
+                    int side = game.getSideToMove() == firstSeat ? 0 : 1;
+                    game.makeMove(policies[side].choose(game, moves, count, random));
+                }
+                int winner = game.getWinner();
+                if (winner == firstSeat) {
+                    balance++;
+                } else if (winner == 1 - firstSeat) {
+                    balance--;
+                }
+                games++;
+            }
+        }
+        return new long[]{balance, games};
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Placeholder seat used only to deal a game; moves are made on the
+     * search representation.
+     */
+    private static final class Seat extends Player {
+        Seat() {
+            super("seat", false);
+        }
+
+        @Override
+        public Card playCard(Game game, List<Card> cardsOnTable) {
+            return null;
+        }
+
+        @Override
+        public Card defendCard(Game game, Card attackCard) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package sim;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs head-to-head and round-robin matches on a fork-join pool.
+ * Games are cut into chunks. Every chunk has its own generator for decks
+ * and players, split from the seed in a fixed order, and its own
+ * {@link MatchStats}. The chunk results are merged at the end, so workers
+ * share no mutable state. Chunk size is fixed, so a seed gives the same
+ * totals on any number of threads, as long as the players do not search
+ * against the clock: a time budget lets the machine load change the moves.
+ */
+public class Tournament implements AutoCloseable {
+    /** Games per task; small enough to even out uneven game lengths. */
+    private static final int CHUNK_GAMES = 1000;
+
+    private final ForkJoinPool pool;
+
+    public Tournament(int threads) {
+        this.pool = new ForkJoinPool(Math.max(1, threads));
+    }
+
+    public int getThreads() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * A named participant of a tournament.
+     */
+    public static final class Entrant {
+        private final String name;
+        private final PlayerFactory factory;
+
+        public Entrant(String name, PlayerFactory factory) {
+            this.name = name;
+            this.factory = factory;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public PlayerFactory getFactory() {
+            return factory;
+        }
+    }
+
+    /**
+     * Merged results of one pairing; seat 0 of the stats is the first entrant.
+     */
+    public static final class PairResult {
+        private final Entrant first;
+        private final Entrant second;
+        private final MatchStats stats;
+
+        PairResult(Entrant first, Entrant second, MatchStats stats) {
+            this.first = first;
+            this.second = second;
+            this.stats = stats;
+        }
+
+        public Entrant getFirst() {
+            return first;
+        }
+
+        public Entrant getSecond() {
+            return second;
+        }
+
+        public MatchStats getStats() {
+            return stats;
+        }
+    }
+
+    /**
+     * Plays the given number of games between two entrants, alternating seats.
+     */
+    public PairResult headToHead(Entrant first, Entrant second, long games, long seed) {
+        return new PairResult(first, second, play(first.getFactory(), second.getFactory(), games, seed));
+    }
+
+    /**
+     * Plays every pair of entrants against each other.
+     */
+    public List<PairResult> roundRobin(List<Entrant> entrants, long gamesPerPair, long seed) {
+        SplittableRandom seeds = new SplittableRandom(seed);
+        List<PairResult> results = new ArrayList<>();
+        for (int i = 0; i < entrants.size(); i++) {
+            for (int j = i + 1; j < entrants.size(); j++) {
+                results.add(headToHead(entrants.get(i), entrants.get(j), gamesPerPair, seeds.nextLong()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Plays a series of games in parallel and merges the per-chunk results.
+     */
+    public MatchStats play(PlayerFactory first, PlayerFactory second, long games, long seed) {
+        int chunks = (int) Math.max(1, (games + CHUNK_GAMES - 1) / CHUNK_GAMES);
+        SplittableRandom random = new SplittableRandom(seed);
+        List<ForkJoinTask<MatchStats>> tasks = new ArrayList<>(chunks);
+
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            long chunkGames = games / chunks + (chunk < games % chunks ? 1 : 0);
+            SplittableRandom chunkRandom = random.split();
+            tasks.add(pool.submit(() -> playChunk(first, second, chunkGames, chunkRandom)));
+        }
+
+        MatchStats total = new MatchStats();
+        for (ForkJoinTask<MatchStats> task : tasks) {
+            total.merge(task.join());
+        }
+        return total;
+    }
+
+    private static MatchStats playChunk(PlayerFactory first, PlayerFactory second,
+                                        long games, SplittableRandom random) {
+        MatchStats stats = new MatchStats();
+        for (long i = 0; i < games; i++) {
+            Simulator.playOne(first, second, random.split(), stats, (i & 1) != 0);
+        }
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+}